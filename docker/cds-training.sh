@@ -0,0 +1,53 @@
+#!/usr/bin/env bash
+# Training run for the class-data-sharing archive, executed during the fast-start image build, see docs/fast-start.md.
+# The service starts against a throwaway local Postgres, serves a few requests so the web, JSON, JPA and template
+# paths are loaded, and the JVM writes every class it loaded to /app/app.jsa when it exits.
+# Kafka, Eureka and the config server are not started: their clients are loaded and retry in the background.
+set -euo pipefail
+
+PG_VERSION=$(ls /etc/postgresql)
+pg_ctlcluster "$PG_VERSION" main start
+su postgres -c "psql -q -c \"ALTER USER postgres PASSWORD 'postgres'\""
+
+java @/app/classpath.args \
+  -XX:ArchiveClassesAtExit=/app/app.jsa \
+  -Dspring.aot.enabled=true \
+  -Duser-service.config-import=optional:configserver:http://localhost:8888 \
+  -Dspring.datasource.url=jdbc:postgresql://localhost:5432/postgres \
+  -Dspring.datasource.username=postgres \
+  -Dspring.datasource.password=postgres \
+  -Dspring.jpa.hibernate.ddl-auto=update \
+  -Dspring.kafka.bootstrap-servers=localhost:9092 \
+  -Dspring.kafka.admin.auto-create=false \
+  com.example.userservice.UserServiceApplication > /tmp/cds-training.log 2>&1 &
+pid=$!
+
+for _ in $(seq 1 180); do
+  if curl -sf -o /dev/null "http://localhost:8080/api/users?limit=1"; then
+    break
+  fi
+  if ! kill -0 "$pid" 2>/dev/null; then
+    cat /tmp/cds-training.log
+    exit 1
+  fi
+  sleep 1
+done
+
+id=$(curl -sf -H 'Content-Type: application/json' -d '{"name":"Training","email":"training@example.com","age":30}' \
+  http://localhost:8080/api/users | sed -E 's/.*"id":([0-9]+).*/\1/')
+curl -sf -o /dev/null -X PATCH -H 'Content-Type: application/json' -d '{"age":31}' "http://localhost:8080/api/users/$id"
+curl -sf -o /dev/null "http://localhost:8080/api/users/$id"
+curl -sf -o /dev/null "http://localhost:8080/api/users?limit=20&fields=id,name"
+curl -sf -o /dev/null "http://localhost:8080/api/users/search?q=train"
+curl -sf -o /dev/null "http://localhost:8080/users"
+curl -sf -o /dev/null "http://localhost:8080/actuator/prometheus"
+
+# A normal shutdown, the archive is written when the JVM exits
+kill -TERM "$pid"
+wait "$pid" || true
+pg_ctlcluster "$PG_VERSION" main stop
+
+if [ ! -s /app/app.jsa ]; then
+  cat /tmp/cds-training.log
+  exit 1
+fi
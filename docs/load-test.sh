@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+# Load comparison of the Tomcat pool and the virtual-thread mode, see docs/virtual-threads.md.
+# Requires hey (https://github.com/rakyll/hey). Start the service once with each mode and run this script against it:
+#   USER_SERVICE_VIRTUAL_THREADS_ENABLED=false java -jar target/user-service-0.0.1-SNAPSHOT.jar
+#   USER_SERVICE_VIRTUAL_THREADS_ENABLED=true  java -jar target/user-service-0.0.1-SNAPSHOT.jar
+set -euo pipefail
+
+BASE_URL=${BASE_URL:-http://localhost:8080}
+DURATION=${DURATION:-60s}
+CONCURRENCY_LEVELS=${CONCURRENCY_LEVELS:-"50 200 1000"}
+LABEL=${LABEL:-$(date +%Y%m%d-%H%M%S)}
+OUT_DIR=${OUT_DIR:-load-test-results/$LABEL}
+
+mkdir -p "$OUT_DIR"
+
+# Seed enough rows that pages and search do real index work
+if [ "${SEED:-true}" = "true" ]; then
+  for batch in $(seq 1 50); do
+    body=$(seq 1 1000 | awk -v b="$batch" -v run="$LABEL" \
+      'BEGIN { printf "[" } { if (NR > 1) printf ","; printf "{\"name\":\"Load %d-%d\",\"email\":\"load-%s-%d-%d@example.com\",\"age\":30}", b, $1, run, b, $1 } END { printf "]" }')
+    curl -sf -o /dev/null -H 'Content-Type: application/json' -d "$body" "$BASE_URL/api/users/batch"
+  done
+fi
+
+# Warm up JIT, connection pool and caches before measuring
+hey -z 20s -c 50 "$BASE_URL/api/users?limit=20" > /dev/null
+
+for concurrency in $CONCURRENCY_LEVELS; do
+  # Keyset page: one indexed query per request, never served from the users cache
+  hey -z "$DURATION" -c "$concurrency" "$BASE_URL/api/users?limit=20&after=1000" \
+    > "$OUT_DIR/page-c$concurrency.txt"
+  # Trigram search: the slowest read, it holds a connection the longest
+  hey -z "$DURATION" -c "$concurrency" "$BASE_URL/api/users/search?q=load" \
+    > "$OUT_DIR/search-c$concurrency.txt"
+  # Single user: mostly served by the users cache, shows the request path without the database limit
+  hey -z "$DURATION" -c "$concurrency" "$BASE_URL/api/users/1001" \
+    > "$OUT_DIR/user-c$concurrency.txt"
+  curl -sf "$BASE_URL/actuator/metrics/jvm.threads.live" > "$OUT_DIR/threads-c$concurrency.json" || true
+done
+
+grep -H -E "Requests/sec|99%|Status code|\[5[0-9]{2}\]" "$OUT_DIR"/*.txt
@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+# Startup comparison of the plain image and the fast-start image (Spring AOT + AppCDS), see docs/fast-start.md.
+# Needs Docker and a network where the service finds its config server, Postgres and Kafka, the same for both images:
+#   NETWORK=user-service_default ./docs/startup-benchmark.sh
+# Each image is started RUNS times. Two times are recorded per run: what Spring Boot reports in its "Started" line,
+# and the wall time from `docker run` until the first successful /api/users response, which is what autoscaling sees.
+set -euo pipefail
+
+NETWORK=${NETWORK:-bridge}
+RUNS=${RUNS:-10}
+PORT=${PORT:-18080}
+BUILD=${BUILD:-true}
+LABEL=${LABEL:-$(date +%Y%m%d-%H%M%S)}
+OUT_DIR=${OUT_DIR:-startup-benchmark-results/$LABEL}
+
+mkdir -p "$OUT_DIR"
+
+if [ "$BUILD" = "true" ]; then
+  docker build -t user-service:plain .
+  docker build --target fast-start -t user-service:fast-start .
+fi
+
+now_ms() {
+  date +%s%3N
+}
+
+for image in plain fast-start; do
+  echo "run,started_s,process_s,ready_ms" > "$OUT_DIR/$image.csv"
+  for run in $(seq 1 "$RUNS"); do
+    start=$(now_ms)
+    container=$(docker run -d --network "$NETWORK" -p "$PORT:8080" "user-service:$image")
+    until curl -sf -o /dev/null "http://localhost:$PORT/api/users?limit=1"; do
+      sleep 0.05
+    done
+    ready=$(( $(now_ms) - start ))
+    # Started UserServiceApplication in 4.2 seconds (process running for 4.9)
+    times=$(docker logs "$container" 2>&1 | grep -m1 "Started UserServiceApplication" \
+      | sed -E 's/.* in ([0-9.]+) seconds \(process running for ([0-9.]+)\).*/\1,\2/')
+    echo "$run,$times,$ready" >> "$OUT_DIR/$image.csv"
+    docker rm -f "$container" > /dev/null
+  done
+done
+
+# Median of each column over the runs
+for image in plain fast-start; do
+  for column in 2 3 4; do
+    name=$(head -1 "$OUT_DIR/$image.csv" | cut -d, -f"$column")
+    median=$(tail -n +2 "$OUT_DIR/$image.csv" | cut -d, -f"$column" | sort -n \
+      | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2 }')
+    echo "$image median $name: $median"
+  done
+done | tee "$OUT_DIR/summary.txt"
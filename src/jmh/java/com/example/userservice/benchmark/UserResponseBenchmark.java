@@ -0,0 +1,121 @@
+package com.example.userservice.benchmark;
+
+import com.example.userservice.controller.UserModelAssembler;
+import com.example.userservice.dto.UserDTO;
+import com.example.userservice.dto.UserPageDTO;
+import com.example.userservice.entity.User;
+import com.example.userservice.mapper.UserMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.DefaultLinkRelationProvider;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Cost of one GET /api/users response body, split into its stages. Sizes are a single user,
+// the default page and the largest page the API allows; divide ops/s by size for users per second
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserResponseBenchmark {
+
+    @Param({"1", "20", "100"})
+    private int size;
+
+    private UserMapper userMapper;
+    private UserModelAssembler userModelAssembler;
+    private ObjectMapper halObjectMapper;
+    private ObjectMapper jsonObjectMapper;
+    private List<User> users;
+    private UserPageDTO page;
+    private CollectionModel<EntityModel<UserDTO>> pageModel;
+
+    @Setup
+    public void setUp() {
+        userMapper = new UserMapper();
+        userModelAssembler = new UserModelAssembler();
+        // Configured like Boot's HAL ObjectMapper: JSR-310 dates as strings plus the HAL module
+        halObjectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(new Jackson2HalModule())
+                .handlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                        new DefaultLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY))
+                .build();
+
+        jsonObjectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        users = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            User user = new User();
+            user.setId(id);
+            user.setName("User " + id);
+            user.setEmail("user" + id + "@example.com");
+            user.setAge(20 + (int) (id % 50));
+            user.setCreated_at(LocalDateTime.of(2025, 1, 1, 12, 0).plusMinutes(id));
+            user.setUpdated_at(user.getCreated_at());
+            user.setVersion(id % 5);
+            users.add(user);
+        }
+        page = new UserPageDTO(mapUsers(), (long) size);
+        pageModel = userModelAssembler.toPageModel(page, 0L, size, null);
+    }
+
+    @Benchmark
+    public List<UserDTO> mapToUserDTO() {
+        return mapUsers();
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<UserDTO>> assembleLinks() {
+        return userModelAssembler.toPageModel(page, 0L, size, null);
+    }
+
+    @Benchmark
+    public byte[] serializeHal() throws JsonProcessingException {
+        return halObjectMapper.writeValueAsBytes(pageModel);
+    }
+
+    @Benchmark
+    public byte[] fullResponse() throws JsonProcessingException {
+        UserPageDTO mappedPage = new UserPageDTO(mapUsers(), (long) size);
+        return halObjectMapper.writeValueAsBytes(userModelAssembler.toPageModel(mappedPage, 0L, size, null));
+    }
+
+    @Benchmark
+    public byte[] fullLeanResponse() throws JsonProcessingException {
+        UserPageDTO mappedPage = new UserPageDTO(mapUsers(), (long) size);
+        return jsonObjectMapper.writeValueAsBytes(userModelAssembler.toLeanPage(mappedPage, 0L, size, null));
+    }
+
+    private List<UserDTO> mapUsers() {
+        return users.stream()
+                .map(userMapper::mapToUserDTO)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.userservice.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String USERS_CACHE = "users";
+
+    @Bean
+    public NewTopic userCacheInvalidationTopic(@Value("${user-service.cache.invalidation-topic}") String topic) {
+        return TopicBuilder.name(topic)
+                .partitions(1)
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.userservice.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+// Runs before config data is loaded: when a snapshot of the config server properties exists, application.yml
+// imports that file instead of the config server, so startup does not wait on (or fail with) the server.
+// ConfigSnapshotRefresher fetches from the server after startup and keeps the snapshot current.
+// The snapshot path can only come from system properties or the environment, application.yml is not loaded yet
+public class ConfigSnapshotEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+    public static final String PATH_PROPERTY = "user-service.config-snapshot.path";
+    public static final String DEFAULT_PATH = "config/user-service-snapshot.properties";
+
+    static final String IMPORT_PROPERTY = "user-service.config-import";
+    static final String PROPERTY_SOURCE_NAME = "configSnapshotImport";
+
+    public static Path snapshotPath(Environment environment) {
+        return Path.of(environment.getProperty(PATH_PROPERTY, DEFAULT_PATH)).toAbsolutePath();
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        Path snapshot = snapshotPath(environment);
+        if (!Files.isRegularFile(snapshot) || environment.getPropertySources().contains(PROPERTY_SOURCE_NAME)) {
+            return;
+        }
+        // Lowest precedence, so an explicit user-service.config-import still wins
+        environment.getPropertySources().addLast(new MapPropertySource(PROPERTY_SOURCE_NAME,
+                Map.of(IMPORT_PROPERTY, "optional:file:" + snapshot)));
+    }
+
+    // Before ConfigDataEnvironmentPostProcessor, which resolves spring.config.import
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.userservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.client.ConfigServicePropertySourceLocator;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Fetches the configuration from the config server off the startup path and stores it as the local snapshot
+// that the next start imports, see ConfigSnapshotEnvironmentPostProcessor. A changed configuration is also applied
+// to the running environment: @ConfigurationProperties beans and log levels are rebound, values injected with
+// @Value take effect on the next start. A failed fetch keeps the previous snapshot
+@Component
+public class ConfigSnapshotRefresher implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigSnapshotRefresher.class);
+
+    private final ConfigurableEnvironment environment;
+    private final ObjectProvider<ConfigClientProperties> configClientProperties;
+    private final ObjectProvider<ContextRefresher> contextRefresher;
+    private final Duration refreshInterval;
+    private final Path snapshot;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("config-snapshot-refresher").daemon().factory());
+
+    public ConfigSnapshotRefresher(ConfigurableEnvironment environment,
+                                   ObjectProvider<ConfigClientProperties> configClientProperties,
+                                   ObjectProvider<ContextRefresher> contextRefresher,
+                                   @Value("${user-service.config-snapshot.refresh-interval}") Duration refreshInterval) {
+        this.environment = environment;
+        this.configClientProperties = configClientProperties;
+        this.contextRefresher = contextRefresher;
+        this.refreshInterval = refreshInterval;
+        this.snapshot = ConfigSnapshotEnvironmentPostProcessor.snapshotPath(environment);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (configClientProperties.getIfAvailable() == null) {
+            logger.info("Config client is disabled, config snapshot is not refreshed");
+            return;
+        }
+        executor.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void refresh() {
+        try {
+            Properties fetched = fetch();
+            if (fetched == null) {
+                logger.warn("Config server is not available, keeping the config snapshot " + snapshot);
+                return;
+            }
+            if (update(fetched)) {
+                ContextRefresher refresher = contextRefresher.getIfAvailable();
+                if (refresher != null) {
+                    Set<String> keys = refresher.refreshEnvironment();
+                    logger.info("Configuration changed: " + keys);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to refresh config snapshot " + snapshot, e);
+        }
+    }
+
+    // Returns true when the snapshot changed
+    boolean update(Properties fetched) throws IOException {
+        if (fetched.equals(read())) {
+            return false;
+        }
+        Files.createDirectories(snapshot.getParent());
+        // The temp file is created owner-only on POSIX systems, the snapshot holds the same credentials
+        // as the config server response; the move replaces the old snapshot in one step
+        Path temp = Files.createTempFile(snapshot.getParent(), snapshot.getFileName().toString(), ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            fetched.store(out, "Config server snapshot, written by ConfigSnapshotRefresher");
+        }
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Config snapshot updated: " + snapshot);
+        return true;
+    }
+
+    private Properties fetch() {
+        PropertySource<?> source = new ConfigServicePropertySourceLocator(configClientProperties.getObject())
+                .locate(environment);
+        if (!(source instanceof EnumerablePropertySource<?> enumerable) || enumerable.getPropertyNames().length == 0) {
+            return null;
+        }
+        // The composite returns the value of the highest-precedence server property source for each name
+        Properties properties = new Properties();
+        for (String name : enumerable.getPropertyNames()) {
+            Object value = enumerable.getProperty(name);
+            if (value != null) {
+                properties.setProperty(name, String.valueOf(value));
+            }
+        }
+        return properties;
+    }
+
+    private Properties read() throws IOException {
+        Properties properties = new Properties();
+        if (Files.isRegularFile(snapshot)) {
+            try (InputStream in = Files.newInputStream(snapshot)) {
+                properties.load(in);
+            }
+        }
+        return properties;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.userservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaDataSources replicaDataSources(DataSourceProperties properties,
+                                                 MeterRegistry meterRegistry,
+                                                 @Value("${user-service.datasource.replica-urls:}") List<String> urls,
+                                                 @Value("${user-service.datasource.replica-pool-size}") int poolSize,
+                                                 @Value("${user-service.datasource.max-lag}") Duration maxLag) {
+        return new ReplicaDataSources(properties, urls, poolSize, maxLag, meterRegistry);
+    }
+
+    // JPA, JdbcTemplate and SQL init all use this one; the lazy proxy defers the routing decision to the first statement
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSources replicaDataSources) {
+        return new LazyConnectionDataSourceProxy(new UserRoutingDataSource(primaryDataSource, replicaDataSources));
+    }
+}
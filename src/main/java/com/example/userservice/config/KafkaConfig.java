@@ -0,0 +1,22 @@
+package com.example.userservice.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class KafkaConfig {
+
+    // Compaction keeps only the latest record per user id, so the topic stays as large as the users table
+    // and a consumer reading it from the beginning ends up with the current state of every user
+    @Bean
+    public NewTopic userStateTopic(@Value("${user-service.kafka.state-topic}") String topic,
+                                   @Value("${user-service.kafka.state-topic-partitions}") int partitions) {
+        return TopicBuilder.name(topic)
+                .partitions(partitions)
+                .compact()
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.userservice.config;
+
+import com.example.userservice.controller.ReactiveUserHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.kafka.core.reactive.ReactiveKafkaProducerTemplate;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.kafka.sender.SenderOptions;
+
+@Configuration
+@ConditionalOnProperty(prefix = "user-service.reactive", name = "enabled", havingValue = "true")
+public class ReactiveConfig {
+    // Deliberately not a bean: a ConnectionFactory in the context would make Boot run schema.sql through R2DBC,
+    // before Hibernate has created the tables, and would add a second transaction manager next to JPA
+    private ConnectionPool connectionPool;
+
+    // Same database and credentials as the JDBC pool, only the URL scheme differs
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(DataSourceProperties dataSourceProperties,
+                                                 @Value("${user-service.reactive.pool-size}") int poolSize) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions
+                .parse(dataSourceProperties.determineUrl().replaceFirst("^jdbc:", "r2dbc:"))
+                .mutate();
+        if (dataSourceProperties.determineUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, dataSourceProperties.determineUsername());
+        }
+        if (dataSourceProperties.determinePassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, dataSourceProperties.determinePassword());
+        }
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .maxSize(poolSize)
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(DatabaseClient reactiveDatabaseClient) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(reactiveDatabaseClient.getConnectionFactory()));
+    }
+
+    @Bean
+    public ReactiveKafkaProducerTemplate<String, String> reactiveKafkaProducerTemplate(KafkaProperties kafkaProperties) {
+        // Only cache invalidations go through here, they stay plain strings while user events are binary
+        return new ReactiveKafkaProducerTemplate<>(SenderOptions.<String, String>create(kafkaProperties.buildProducerProperties())
+                .withKeySerializer(new StringSerializer())
+                .withValueSerializer(new StringSerializer()));
+    }
+
+    // Boot's ObjectMapper keeps the JSON identical to the servlet API
+    @Bean
+    public ReactiveUserServer reactiveUserServer(ReactiveUserHandler reactiveUserHandler, ObjectMapper objectMapper,
+                                                 @Value("${user-service.reactive.port}") int port) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        return new ReactiveUserServer(RouterFunctions.toHttpHandler(reactiveUserHandler.routes(), strategies), port);
+    }
+
+    @PreDestroy
+    public void closeConnectionPool() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.userservice.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// A client that has just written reads from the primary until any replica still in rotation must have caught up:
+// every unsafe request sets a short-lived cookie, and requests carrying it skip the replicas
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    public static final String COOKIE_NAME = "user-service-primary";
+    private static final String PRIMARY_ATTRIBUTE = ReadYourWritesFilter.class.getName() + ".PRIMARY";
+
+    private final int windowSeconds;
+
+    public ReadYourWritesFilter(@Value("${user-service.datasource.max-lag}") Duration maxLag,
+                                @Value("${user-service.datasource.lag-check-interval}") Duration lagCheckInterval) {
+        // A replica in rotation lags at most max-lag, plus whatever it fell behind since the last check
+        this.windowSeconds = (int) Math.max(1, maxLag.plus(lagCheckInterval).toSeconds() + 1);
+    }
+
+    public static boolean primaryRequired() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null && attributes.getAttribute(PRIMARY_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isWrite(request)) {
+            Cookie cookie = new Cookie(COOKIE_NAME, "1");
+            cookie.setPath("/");
+            cookie.setMaxAge(windowSeconds);
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+            request.setAttribute(PRIMARY_ATTRIBUTE, Boolean.TRUE);
+        } else if (hasCookie(request)) {
+            request.setAttribute(PRIMARY_ATTRIBUTE, Boolean.TRUE);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !method.equals("GET") && !method.equals("HEAD") && !method.equals("OPTIONS");
+    }
+
+    private static boolean hasCookie(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return false;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (cookie.getName().equals(COOKIE_NAME)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.userservice.config;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+public class ResilienceConfig {
+    public static final String READ_ONE_PROFILE = "user-read-one";
+    public static final String LIST_PROFILE = "user-list";
+    public static final String WRITE_PROFILE = "user-write";
+    public static final String DELETE_PROFILE = "user-delete";
+
+    // Thresholds come from resilience4j.* properties, the registries also export every instance as metrics
+    @Bean
+    public UserResilienceProfiles userResilienceProfiles(CircuitBreakerRegistry circuitBreakerRegistry,
+                                                         BulkheadRegistry bulkheadRegistry,
+                                                         TimeLimiterRegistry timeLimiterRegistry,
+                                                         PlatformTransactionManager transactionManager) {
+        return new UserResilienceProfiles(
+                profile(READ_ONE_PROFILE, circuitBreakerRegistry, bulkheadRegistry, timeLimiterRegistry, transactionManager, true),
+                profile(LIST_PROFILE, circuitBreakerRegistry, bulkheadRegistry, timeLimiterRegistry, transactionManager, true),
+                profile(WRITE_PROFILE, circuitBreakerRegistry, bulkheadRegistry, timeLimiterRegistry, transactionManager, false),
+                profile(DELETE_PROFILE, circuitBreakerRegistry, bulkheadRegistry, timeLimiterRegistry, transactionManager, false));
+    }
+
+    private static ResilienceProfile profile(String name, CircuitBreakerRegistry circuitBreakerRegistry,
+                                             BulkheadRegistry bulkheadRegistry, TimeLimiterRegistry timeLimiterRegistry,
+                                             PlatformTransactionManager transactionManager, boolean readOnly) {
+        return new ResilienceProfile(circuitBreakerRegistry.circuitBreaker(name), bulkheadRegistry.bulkhead(name),
+                timeLimiterRegistry.timeLimiter(name), transactionManager, readOnly);
+    }
+}
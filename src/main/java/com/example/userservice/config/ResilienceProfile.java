@@ -0,0 +1,48 @@
+package com.example.userservice.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class ResilienceProfile {
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final TransactionTemplate transactionTemplate;
+
+    public ResilienceProfile(CircuitBreaker circuitBreaker, Bulkhead bulkhead, TimeLimiter timeLimiter,
+                             PlatformTransactionManager transactionManager, boolean readOnly) {
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Read-only transactions skip Hibernate flushes and dirty checking and are routed to the read replicas
+        this.transactionTemplate.setReadOnly(readOnly);
+        // The time limit becomes the transaction timeout, Spring applies it as the JDBC query timeout,
+        // so a slow statement is cancelled in the database instead of being abandoned on another thread
+        long timeout = timeLimiter.getTimeLimiterConfig().getTimeoutDuration().toMillis();
+        this.transactionTemplate.setTimeout((int) Math.max(1, (timeout + 999) / 1000));
+    }
+
+    public String getName() {
+        return circuitBreaker.getName();
+    }
+
+    // Runs on the calling thread, so the transaction and its synchronizations stay bound to the request;
+    // ignored exceptions are business outcomes and skip the fallback
+    public <T> T execute(Supplier<T> call, Function<Throwable, T> fallback) {
+        Supplier<T> decorated = CircuitBreaker.decorateSupplier(circuitBreaker,
+                Bulkhead.decorateSupplier(bulkhead, () -> transactionTemplate.execute(status -> call.get())));
+        try {
+            return decorated.get();
+        } catch (RuntimeException e) {
+            if (circuitBreaker.getCircuitBreakerConfig().getIgnoreExceptionPredicate().test(e)) {
+                throw e;
+            }
+            return fallback.apply(e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.userservice.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UserResilienceProfiles {
+    private ResilienceProfile readOne;
+    private ResilienceProfile list;
+    private ResilienceProfile write;
+    private ResilienceProfile delete;
+}
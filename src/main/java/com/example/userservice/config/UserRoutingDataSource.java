@@ -0,0 +1,34 @@
+package com.example.userservice.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+// Read-only transactions go to a healthy replica unless the client has just written; everything else,
+// including work outside a transaction, goes to the primary. Behind a LazyConnectionDataSourceProxy the key
+// is looked up on the first statement, after the transaction manager has published the read-only flag.
+public class UserRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+
+    private final ReplicaDataSources replicas;
+
+    public UserRoutingDataSource(DataSource primary, ReplicaDataSources replicas) {
+        this.replicas = replicas;
+        Map<Object, Object> targets = new HashMap<>(replicas.targets());
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadYourWritesFilter.primaryRequired()) {
+            return PRIMARY;
+        }
+        return replicas.nextHealthy().orElse(PRIMARY);
+    }
+}
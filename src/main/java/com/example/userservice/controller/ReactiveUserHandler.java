@@ -0,0 +1,96 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserDTO;
+import com.example.userservice.service.ReactiveUserService;
+import com.example.userservice.service.UserService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+// Functional endpoints of the reactive API, served by ReactiveUserServer on its own event loop
+@Component
+@ConditionalOnProperty(prefix = "user-service.reactive", name = "enabled", havingValue = "true")
+public class ReactiveUserHandler {
+    public static final String BASE_PATH = "/reactive/api/users";
+
+    private final ReactiveUserService reactiveUserService;
+
+    public ReactiveUserHandler(ReactiveUserService reactiveUserService) {
+        this.reactiveUserService = reactiveUserService;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .path(BASE_PATH, builder -> builder
+                        .GET("", this::getUsers)
+                        .GET("/{id}", this::getUserById)
+                        .POST("", this::createUser)
+                        .DELETE("/{id}", this::deleteUser))
+                .build();
+    }
+
+    // NDJSON without a limit streams every user after the cursor, paced by the client's demand;
+    // otherwise one keyset page as a JSON array
+    public Mono<ServerResponse> getUsers(ServerRequest request) {
+        Long after = longParam(request, "after");
+        Long limit = longParam(request, "limit");
+        if (request.headers().accept().contains(MediaType.APPLICATION_NDJSON) && limit == null) {
+            return ServerResponse.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(reactiveUserService.streamUsers(after), UserDTO.class);
+        }
+        int pageSize = limit == null
+                ? UserService.DEFAULT_PAGE_SIZE
+                : (int) Math.max(1, Math.min(limit, UserService.MAX_PAGE_SIZE));
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(reactiveUserService.getUsersPage(after, pageSize), UserDTO.class);
+    }
+
+    public Mono<ServerResponse> getUserById(ServerRequest request) {
+        return reactiveUserService.getUserById(pathId(request))
+                .flatMap(user -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(user))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> createUser(ServerRequest request) {
+        return request.bodyToMono(UserDTO.class)
+                .filter(user -> user.getEmail() != null && !user.getEmail().isBlank())
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Email is required")))
+                .flatMap(reactiveUserService::createUser)
+                .flatMap(user -> ServerResponse.created(URI.create(BASE_PATH + "/" + user.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(user));
+    }
+
+    public Mono<ServerResponse> deleteUser(ServerRequest request) {
+        return reactiveUserService.deleteUser(pathId(request))
+                .flatMap(deleted -> ServerResponse.noContent().build())
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    private static Long pathId(ServerRequest request) {
+        try {
+            return Long.valueOf(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid user id");
+        }
+    }
+
+    private static Long longParam(ServerRequest request, String name) {
+        try {
+            return request.queryParam(name).map(Long::valueOf).orElse(null);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + name);
+        }
+    }
+}
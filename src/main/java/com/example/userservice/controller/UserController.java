@@ -10,11 +10,15 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.List;
+
 
 @Controller
 @RequestMapping("/users")
@@ -25,18 +29,43 @@ public class UserController {
 
     private final UserService userService;
 
+    private static final List<Integer> PAGE_SIZES = List.of(20, 50, 100, UserService.MAX_HTML_PAGE_SIZE);
+
     @Operation(
-            summary = "Получить список всех существующих пользователей",
-            description = "Возвращает HTML-страницу со списком всех существующих пользователей"
+            summary = "Получить страницу пользователей",
+            description = "Возвращает HTML-страницу со списком пользователей с постраничной навигацией, "
+                    + "сортировкой и выбором размера страницы"
     )
     @ApiResponse(
             responseCode = "200",
             description = "Страница с пользователями успешно загружена"
     )
     @GetMapping
-    public String getAllUsers(Model model) {
-        logger.info("Request for all users");
-        model.addAttribute("users", userService.getAllUsers());
+    public String getAllUsers(
+            @Parameter(description = "Номер страницы, начиная с 0", example = "0")
+            @RequestParam(defaultValue = "0") int page,
+
+            @Parameter(description = "Размер страницы (максимум " + UserService.MAX_HTML_PAGE_SIZE + ")", example = "20")
+            @RequestParam(defaultValue = "" + UserService.DEFAULT_PAGE_SIZE) int size,
+
+            @Parameter(description = "Поле сортировки: id, name, email, age или created_at", example = "id")
+            @RequestParam(defaultValue = "id") String sort,
+
+            @Parameter(description = "Направление сортировки: asc или desc", example = "asc")
+            @RequestParam(defaultValue = "asc") String direction,
+            Model model) {
+        logger.info("Request for users page: " + page + ", size: " + size + ", sort: " + sort + " " + direction);
+        Sort.Direction sortDirection = Sort.Direction.fromOptionalString(direction).orElse(Sort.Direction.ASC);
+        Slice<UserDTO> users = userService.getUsersSlice(page, size, sort, sortDirection);
+
+        model.addAttribute("users", users.getContent());
+        model.addAttribute("page", users.getNumber());
+        model.addAttribute("size", users.getSize());
+        model.addAttribute("sort", UserService.SORT_PROPERTIES.contains(sort) ? sort : "id");
+        model.addAttribute("direction", sortDirection.name().toLowerCase());
+        model.addAttribute("hasPrevious", users.hasPrevious());
+        model.addAttribute("hasNext", users.hasNext());
+        model.addAttribute("pageSizes", PAGE_SIZES);
         return "users/list";
     }
 
@@ -0,0 +1,75 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserDTO;
+import com.example.userservice.dto.UserLeanPageDTO;
+import com.example.userservice.dto.UserPageDTO;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.server.RepresentationModelAssembler;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+// HAL representation of users, kept out of the controller so that the benchmarks in src/jmh measure the same code
+@Component
+public class UserModelAssembler implements RepresentationModelAssembler<UserDTO, EntityModel<UserDTO>> {
+    public static final String LEAN_JSON_VALUE = "application/vnd.user-service.lean+json";
+
+    @Override
+    public EntityModel<UserDTO> toModel(UserDTO user) {
+        return toModel(user, usersHref());
+    }
+
+    public CollectionModel<EntityModel<UserDTO>> toPageModel(UserPageDTO page, Long after, Integer limit, String fields) {
+        String usersHref = usersHref();
+        List<EntityModel<UserDTO>> users = new ArrayList<>(page.getUsers().size());
+        for (UserDTO user : page.getUsers()) {
+            users.add(toModel(user, usersHref));
+        }
+
+        List<Link> links = new ArrayList<>();
+        links.add(linkTo(methodOn(UserRestController.class).getAllUsers(after, limit, fields, null)).withSelfRel());
+        if (page.getNextCursor() != null) {
+            links.add(linkTo(methodOn(UserRestController.class).getAllUsers(page.getNextCursor(), limit, fields, null)).withRel("next"));
+        }
+        links.add(Link.of(usersHref, "create"));
+        return CollectionModel.of(users, links);
+    }
+
+    // Plain JSON for machine clients: page links plus one "user" template instead of links on every item
+    public UserLeanPageDTO toLeanPage(UserPageDTO page, Long after, Integer limit, String fields) {
+        String usersHref = usersHref();
+        Map<String, String> links = new LinkedHashMap<>();
+        links.put(IanaLinkRelations.SELF_VALUE,
+                linkTo(methodOn(UserRestController.class).getAllUsers(after, limit, fields, null)).toUri().toString());
+        if (page.getNextCursor() != null) {
+            links.put(IanaLinkRelations.NEXT_VALUE,
+                    linkTo(methodOn(UserRestController.class).getAllUsers(page.getNextCursor(), limit, fields, null)).toUri().toString());
+        }
+        links.put("create", usersHref);
+        links.put("user", usersHref + "/{id}");
+        return new UserLeanPageDTO(page.getUsers(), page.getNextCursor(), links);
+    }
+
+    // Self, update and delete share the /api/users/{id} href, so each item costs one string concatenation
+    private EntityModel<UserDTO> toModel(UserDTO user, String usersHref) {
+        String userHref = usersHref + "/" + user.getId();
+        return EntityModel.of(user,
+                Link.of(userHref),
+                Link.of(userHref, "update"),
+                Link.of(userHref, "delete"));
+    }
+
+    // Resolved once per response from the current request, so forwarded host and context path still apply
+    private String usersHref() {
+        return linkTo(UserRestController.class).toUri().toString();
+    }
+}
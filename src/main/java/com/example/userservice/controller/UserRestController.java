@@ -1,20 +1,42 @@
 package com.example.userservice.controller;
 
+import com.example.userservice.dto.UserBatchResultDTO;
+import com.example.userservice.dto.UserBulkDeleteDTO;
 import com.example.userservice.dto.UserDTO;
+import com.example.userservice.dto.UserLeanPageDTO;
+import com.example.userservice.dto.UserPageDTO;
+import com.example.userservice.dto.UserSearchPageDTO;
+import com.example.userservice.exception.UserVersionConflictException;
+import com.example.userservice.repository.UserField;
+import com.example.userservice.service.UserExportService;
+import com.example.userservice.service.UserImportService;
 import com.example.userservice.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.hateoas.Link;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
@@ -26,29 +48,119 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 @Tag(name = "User REST Controller", description = "REST API для управления пользователями с поддержкой HATEOAS")
 public class UserRestController {
 
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     private final UserService userService;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
+    private final UserModelAssembler userModelAssembler;
 
     @Operation(
-            summary = "Получить список всех пользователей",
-            description = "Возвращает список всех пользователей с HATEOAS-ссылками"
-    )
-    @ApiResponse(
-            responseCode = "200",
-            description = "Список пользователей успешно получен"
+            summary = "Получить страницу пользователей",
+            description = "Возвращает страницу пользователей, отсортированных по ID, начиная после курсора, "
+                    + "с HATEOAS-ссылками и ссылкой next на следующую страницу"
     )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Страница пользователей успешно получена"
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Страница не изменилась с момента получения ETag из If-None-Match"
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "База данных недоступна и последней известной страницы нет"
+            )
+    })
     @GetMapping
-    public CollectionModel<EntityModel<UserDTO>> getAllUsers() {
-        List<EntityModel<UserDTO>> users = userService.getAllUsers().stream()
-                .map(user -> EntityModel.of(user,
-                        linkTo(methodOn(UserRestController.class).getUserById(user.getId())).withSelfRel(),
-                        linkTo(methodOn(UserRestController.class).updateUser(user.getId(), user)).withRel("update"),
-                        linkTo(methodOn(UserRestController.class).deleteUser(user.getId())).withRel("delete")))
-                .collect(Collectors.toList());
+    public ResponseEntity<CollectionModel<EntityModel<UserDTO>>> getAllUsers(
+            @Parameter(description = "Курсор: ID последнего пользователя предыдущей страницы", example = "20")
+            @RequestParam(required = false) Long after,
+
+            @Parameter(description = "Размер страницы (по умолчанию " + UserService.DEFAULT_PAGE_SIZE
+                    + ", максимум " + UserService.MAX_PAGE_SIZE + ")", example = "20")
+            @RequestParam(required = false) Integer limit,
+
+            @Parameter(description = "Поля пользователя через запятую, id возвращается всегда (допустимые: "
+                    + "id, name, email, age, created_at, version)", example = "id,email")
+            @RequestParam(required = false) String fields,
 
-        Link selfLink = linkTo(methodOn(UserRestController.class).getAllUsers()).withSelfRel();
-        Link createLink = linkTo(methodOn(UserRestController.class).createUser(null)).withRel("create");
+            @Parameter(description = "ETag ранее полученной страницы")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = userService.getUsersPageETag(after, limit);
+        if (notModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
 
-        return CollectionModel.of(users, selfLink, createLink);
+        Set<UserField> fieldSet = parseFields(fields);
+        UserPageDTO page = fieldSet == null
+                ? userService.getUsersPage(after, limit)
+                : userService.getUsersPage(after, limit, fieldSet);
+        return conditional(etag).varyBy(HttpHeaders.ACCEPT)
+                .body(userModelAssembler.toPageModel(page, after, limit, fields));
+    }
+
+    @Operation(
+            summary = "Получить страницу пользователей в компактном представлении",
+            description = "То же, что и страница пользователей, но простым JSON без HAL-ссылок у каждого пользователя: "
+                    + "ссылки страницы и шаблон ссылки на пользователя собраны в одном разделе links"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Страница пользователей успешно получена"
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Страница не изменилась с момента получения ETag из If-None-Match"
+            )
+    })
+    @GetMapping(produces = UserModelAssembler.LEAN_JSON_VALUE)
+    public ResponseEntity<UserLeanPageDTO> getAllUsersLean(
+            @Parameter(description = "Курсор: ID последнего пользователя предыдущей страницы", example = "20")
+            @RequestParam(required = false) Long after,
+
+            @Parameter(description = "Размер страницы (по умолчанию " + UserService.DEFAULT_PAGE_SIZE
+                    + ", максимум " + UserService.MAX_PAGE_SIZE + ")", example = "20")
+            @RequestParam(required = false) Integer limit,
+
+            @Parameter(description = "Поля пользователя через запятую, id возвращается всегда (допустимые: "
+                    + "id, name, email, age, created_at, version)", example = "id,email")
+            @RequestParam(required = false) String fields,
+
+            @Parameter(description = "ETag ранее полученной страницы")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Same validator as the HAL page, tagged so that the two representations never share an ETag
+        String etag = userService.getUsersPageETag(after, limit);
+        if (etag != null) {
+            etag = "lean-" + etag;
+        }
+        if (notModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        Set<UserField> fieldSet = parseFields(fields);
+        UserPageDTO page = fieldSet == null
+                ? userService.getUsersPage(after, limit)
+                : userService.getUsersPage(after, limit, fieldSet);
+        return conditional(etag).varyBy(HttpHeaders.ACCEPT)
+                .body(userModelAssembler.toLeanPage(page, after, limit, fields));
+    }
+
+    @Operation(
+            summary = "Выгрузить всех пользователей",
+            description = "Потоково выгружает всех пользователей в формате NDJSON (один JSON-объект на строку), "
+                    + "отсортированных по ID, без загрузки всей таблицы в память"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Выгрузка пользователей начата"
+    )
+    @GetMapping(value = "/export", produces = NDJSON_VALUE)
+    public WebAsyncTask<Void> exportUsers(HttpServletResponse response) {
+        return withoutTimeout(response, userExportService::exportUsers);
     }
 
     @Operation(
@@ -58,71 +170,220 @@ public class UserRestController {
     @ApiResponses({
             @ApiResponse(
                     responseCode = "200",
-                    description = "Пользователь успешно найден"
+                    description = "Пользователь успешно найден, версия в заголовке ETag"
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Пользователь не изменился с момента получения ETag из If-None-Match"
             ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Пользователь не найден"
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "База данных недоступна и последней известной версии пользователя нет"
             )
     })
     @GetMapping("/{id}")
-    public EntityModel<UserDTO> getUserById(
+    public ResponseEntity<EntityModel<UserDTO>> getUserById(
             @Parameter(description = "ID пользователя", example = "1", required = true)
-            @PathVariable Long id) {
-        UserDTO user = userService.getUserById(id);
-        return EntityModel.of(user,
-                linkTo(methodOn(UserRestController.class).getUserById(id)).withSelfRel(),
-                linkTo(methodOn(UserRestController.class).updateUser(id, user)).withRel("update"),
-                linkTo(methodOn(UserRestController.class).deleteUser(id)).withRel("delete"),
-                linkTo(methodOn(UserRestController.class).getAllUsers()).withRel("users"));
+            @PathVariable Long id,
+
+            @Parameter(description = "Поля пользователя через запятую, id возвращается всегда (допустимые: "
+                    + "id, name, email, age, created_at, version)", example = "id,email")
+            @RequestParam(required = false) String fields,
+
+            @Parameter(description = "ETag ранее полученного пользователя", example = "\"0\"")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String etag = userService.getUserETag(id);
+            if (notModified(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+
+        // A sparse user carries an ETag only when its version was among the requested fields
+        Set<UserField> fieldSet = parseFields(fields);
+        UserDTO user = fieldSet == null ? userService.getUserById(id) : userService.getUserById(id, fieldSet);
+        return conditional(user.getVersion() == null ? null : String.valueOf(user.getVersion())).body(userModelAssembler.toModel(user)
+                .add(linkTo(methodOn(UserRestController.class).getAllUsers(null, null, null, null)).withRel("users")));
+    }
+
+    @Operation(
+            summary = "Поиск пользователей",
+            description = "Ищет пользователей по части имени или email (триграммный индекс): "
+                    + "сначала совпадения по префиксу, затем по схожести"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Страница результатов поиска"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Запрос короче " + UserService.MIN_SEARCH_QUERY_LENGTH
+                            + " или длиннее " + UserService.MAX_SEARCH_QUERY_LENGTH + " символов"
+            )
+    })
+    @GetMapping("/search")
+    public CollectionModel<EntityModel<UserDTO>> searchUsers(
+            @Parameter(description = "Часть имени или email", example = "ivan", required = true)
+            @RequestParam String q,
+
+            @Parameter(description = "Смещение от начала результатов (максимум " + UserService.MAX_SEARCH_OFFSET + ")",
+                    example = "0")
+            @RequestParam(required = false) Integer offset,
+
+            @Parameter(description = "Размер страницы (по умолчанию " + UserService.DEFAULT_PAGE_SIZE
+                    + ", максимум " + UserService.MAX_PAGE_SIZE + ")", example = "20")
+            @RequestParam(required = false) Integer limit) {
+        int length = q.trim().length();
+        if (length < UserService.MIN_SEARCH_QUERY_LENGTH || length > UserService.MAX_SEARCH_QUERY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query must be "
+                    + UserService.MIN_SEARCH_QUERY_LENGTH + " to " + UserService.MAX_SEARCH_QUERY_LENGTH + " characters");
+        }
+
+        UserSearchPageDTO page = userService.searchUsers(q, offset, limit);
+        List<EntityModel<UserDTO>> users = page.getUsers().stream()
+                .map(user -> EntityModel.of(user,
+                        linkTo(methodOn(UserRestController.class).getUserById(user.getId(), null, null)).withSelfRel()))
+                .collect(Collectors.toList());
+
+        List<Link> links = new ArrayList<>();
+        links.add(linkTo(methodOn(UserRestController.class).searchUsers(q, offset, limit)).withSelfRel());
+        if (page.getNextOffset() != null && page.getNextOffset() <= UserService.MAX_SEARCH_OFFSET) {
+            links.add(linkTo(methodOn(UserRestController.class).searchUsers(q, page.getNextOffset(), limit)).withRel("next"));
+        }
+        return CollectionModel.of(users, links);
+    }
+
+    @Operation(
+            summary = "Найти пользователя по email",
+            description = "Возвращает пользователя с указанным email, поиск идет по уникальному индексу"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Пользователь успешно найден"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Пользователь с таким email не найден"
+            )
+    })
+    @GetMapping("/by-email")
+    public ResponseEntity<EntityModel<UserDTO>> getUserByEmail(
+            @Parameter(description = "Email пользователя", example = "user@example.com", required = true)
+            @RequestParam String email) {
+        return ResponseEntity.of(userService.getUserByEmail(email).map(user -> EntityModel.of(user,
+                linkTo(methodOn(UserRestController.class).getUserById(user.getId(), null, null)).withSelfRel(),
+                linkTo(methodOn(UserRestController.class).getAllUsers(null, null, null, null)).withRel("users"))));
     }
 
     @Operation(
             summary = "Создать нового пользователя",
             description = "Создает нового пользователя и возвращает созданный ресурс"
     )
-    @ApiResponse(
-            responseCode = "201",
-            description = "Пользователь успешно создан"
-    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Пользователь успешно создан"
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Пользователь с таким email уже существует"
+            )
+    })
     @PostMapping
     public ResponseEntity<EntityModel<UserDTO>> createUser(
             @Parameter(description = "Данные пользователя", required = true)
             @RequestBody UserDTO userDto) {
         UserDTO createdUser = userService.createUser(userDto);
         EntityModel<UserDTO> resource = EntityModel.of(createdUser,
-                linkTo(methodOn(UserRestController.class).getUserById(createdUser.getId())).withSelfRel());
+                linkTo(methodOn(UserRestController.class).getUserById(createdUser.getId(), null, null)).withSelfRel());
 
         return ResponseEntity.created(
-                        linkTo(methodOn(UserRestController.class).getUserById(createdUser.getId())).toUri())
+                        linkTo(methodOn(UserRestController.class).getUserById(createdUser.getId(), null, null)).toUri())
                 .body(resource);
     }
 
+    @Operation(
+            summary = "Создать пользователей пакетом",
+            description = "Создает до " + UserService.MAX_BATCH_SIZE + " пользователей в одной транзакции "
+                    + "и возвращает результат по каждому элементу входного массива"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Пакет обработан, результат по каждому пользователю в ответе"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Пакет пуст или превышает допустимый размер"
+            )
+    })
+    @PostMapping("/batch")
+    public List<UserBatchResultDTO> createUsers(
+            @Parameter(description = "Данные пользователей", required = true)
+            @RequestBody List<UserDTO> userDtos) {
+        if (userDtos.isEmpty() || userDtos.size() > UserService.MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Batch must contain from 1 to " + UserService.MAX_BATCH_SIZE + " users");
+        }
+        return userService.createUsers(userDtos);
+    }
+
+    @Operation(
+            summary = "Импортировать пользователей из CSV",
+            description = "Потоково загружает пользователей из CSV с заголовком (колонки name, email, age) через COPY "
+                    + "пакетами, каждый в своей транзакции. Ответ в формате NDJSON: строка с ошибкой "
+                    + "для каждой отклоненной строки файла и строка прогресса после каждого пакета, последняя с done = true"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Импорт начат, ошибки и прогресс в теле ответа"
+    )
+    @PostMapping(value = "/import", consumes = "text/csv", produces = NDJSON_VALUE)
+    public WebAsyncTask<Void> importUsers(HttpServletRequest request, HttpServletResponse response) {
+        return withoutTimeout(response, out -> userImportService.importUsers(request.getInputStream(), out));
+    }
+
     @Operation(
             summary = "Обновить пользователя",
-            description = "Обновляет данные пользователя с указанным ID"
+            description = "Частично обновляет данные пользователя с указанным ID: изменяются только переданные поля. "
+                    + "С заголовком If-Match обновление выполняется, только если версия пользователя совпадает с ETag"
     )
     @ApiResponses({
             @ApiResponse(
                     responseCode = "200",
-                    description = "Пользователь успешно обновлен"
+                    description = "Пользователь успешно обновлен, новая версия в заголовке ETag"
+            ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "Пользователь был изменен после получения ETag"
             ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Пользователь не найден"
             )
     })
-    @PutMapping("/{id}")
-    public EntityModel<UserDTO> updateUser(
+    @RequestMapping(value = "/{id}", method = {RequestMethod.PUT, RequestMethod.PATCH})
+    public ResponseEntity<EntityModel<UserDTO>> updateUser(
             @Parameter(description = "ID пользователя", example = "1", required = true)
             @PathVariable Long id,
 
             @Parameter(description = "Обновленные данные пользователя", required = true)
-            @RequestBody UserDTO userDto) {
-        UserDTO updatedUser = userService.updateUser(id, userDto);
-        return EntityModel.of(updatedUser,
-                linkTo(methodOn(UserRestController.class).getUserById(id)).withSelfRel(),
-                linkTo(methodOn(UserRestController.class).getAllUsers()).withRel("users"));
+            @RequestBody UserDTO userDto,
+
+            @Parameter(description = "ETag пользователя, полученный при чтении", example = "\"0\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UserDTO updatedUser = userService.updateUser(id, userDto, parseIfMatch(id, ifMatch));
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(updatedUser.getVersion()))
+                .body(EntityModel.of(updatedUser,
+                        linkTo(methodOn(UserRestController.class).getUserById(id, null, null)).withSelfRel(),
+                        linkTo(methodOn(UserRestController.class).getAllUsers(null, null, null, null)).withRel("users")));
     }
 
     @Operation(
@@ -145,6 +406,97 @@ public class UserRestController {
             @PathVariable Long id) {
         userService.deleteUser(id);
         return ResponseEntity.ok().body(
-                EntityModel.of(Link.of(linkTo(methodOn(UserRestController.class).getAllUsers()).toString(), "all-users")));
+                EntityModel.of(Link.of(linkTo(methodOn(UserRestController.class).getAllUsers(null, null, null, null)).toString(), "all-users")));
+    }
+
+    @Operation(
+            summary = "Удалить пользователей пакетом",
+            description = "Удаляет пользователей по списку ID или всех пользователей, созданных раньше указанной даты, "
+                    + "одним запросом к базе и отправляет события удаления в Kafka пакетом"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Пользователи удалены, в ответе количество удаленных"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Не указан ровно один из фильтров ids или createdBefore"
+            )
+    })
+    @DeleteMapping
+    public EntityModel<UserBulkDeleteDTO> deleteUsers(
+            @Parameter(description = "ID удаляемых пользователей", example = "1,2,3")
+            @RequestParam(required = false) List<Long> ids,
+
+            @Parameter(description = "Удалить пользователей, созданных раньше этой даты", example = "2025-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore) {
+        if ((ids == null) == (createdBefore == null) || (ids != null && ids.isEmpty())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Exactly one of ids or createdBefore is required");
+        }
+        int deleted = ids != null
+                ? userService.deleteUsers(ids)
+                : userService.deleteUsersCreatedBefore(createdBefore);
+        return EntityModel.of(new UserBulkDeleteDTO(deleted),
+                linkTo(methodOn(UserRestController.class).getAllUsers(null, null, null, null)).withRel("users"));
+    }
+
+    // Unknown names are rejected instead of ignored, so a typo does not silently return fewer fields
+    private Set<UserField> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<UserField> fieldSet = EnumSet.of(UserField.ID);
+        for (String name : fields.split(",")) {
+            fieldSet.add(UserField.of(name.trim()).orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unknown field: " + name.trim() + ", allowed: " + UserField.names())));
+        }
+        return fieldSet;
+    }
+
+    // ETags carry the user version, "*" or a missing header means an unconditional update
+    private Long parseIfMatch(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new UserVersionConflictException(id, null);
+        }
+        try {
+            return Long.valueOf(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new UserVersionConflictException(id, null);
+        }
+    }
+
+    // If-None-Match uses the weak comparison, so W/ prefixes are ignored
+    private boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String value = tag.trim();
+            if (value.equals("*") || value.replaceFirst("^W/", "").replace("\"", "").equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ResponseEntity.BodyBuilder conditional(String etag) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        return etag == null ? builder : builder.eTag(etag);
+    }
+
+    // Export and import run as long as the table or the upload is, so only these requests lift the async timeout;
+    // the response argument marks the request handled, the body is written here instead of by a converter
+    private static WebAsyncTask<Void> withoutTimeout(HttpServletResponse response, StreamingResponseBody body) {
+        return new WebAsyncTask<>(-1L, () -> {
+            response.setContentType(NDJSON_VALUE);
+            body.writeTo(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
     }
-}
\ No newline at end of file
+}
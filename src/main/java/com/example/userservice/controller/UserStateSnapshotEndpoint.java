@@ -0,0 +1,29 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserStateSnapshotDTO;
+import com.example.userservice.service.UserStateSnapshotService;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+// POST /actuator/userstate starts a snapshot into the user-state topic, GET reports its progress;
+// an operations endpoint, so it stays off the public API and the Swagger docs
+@Component
+@Endpoint(id = "userstate")
+@AllArgsConstructor
+public class UserStateSnapshotEndpoint {
+    private final UserStateSnapshotService snapshotService;
+
+    @ReadOperation
+    public UserStateSnapshotDTO status() {
+        return snapshotService.getStatus();
+    }
+
+    @WriteOperation
+    public UserStateSnapshotDTO snapshot() {
+        snapshotService.start();
+        return snapshotService.getStatus();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "Результат создания одного пользователя из пакета")
+public class UserBatchResultDTO {
+    public enum Status { CREATED, REJECTED }
+
+    @Schema(description = "Позиция пользователя во входном массиве", example = "0")
+    private int index;
+    @Schema(description = "Результат обработки", example = "CREATED")
+    private Status status;
+    @Schema(description = "ID созданного пользователя", example = "1")
+    private Long id;
+    @Schema(description = "Причина отклонения", example = "Email is required")
+    private String error;
+
+    public static UserBatchResultDTO created(int index, Long id) {
+        return new UserBatchResultDTO(index, Status.CREATED, id, null);
+    }
+
+    public static UserBatchResultDTO rejected(int index, String error) {
+        return new UserBatchResultDTO(index, Status.REJECTED, null, error);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "Результат пакетного удаления пользователей")
+public class UserBulkDeleteDTO {
+    @Schema(description = "Количество удаленных пользователей", example = "100")
+    private int deleted;
+}
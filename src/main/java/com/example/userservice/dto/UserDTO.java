@@ -24,4 +24,9 @@ public class UserDTO {
             example = "2025-01-01 12:00:00"
     )
     private LocalDateTime created_at;
+    @Schema(description = "Версия пользователя, увеличивается при каждом изменении, используется в ETag",
+            accessMode = Schema.AccessMode.READ_ONLY,
+            example = "0"
+    )
+    private Long version;
 }
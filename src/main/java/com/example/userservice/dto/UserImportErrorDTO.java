@@ -0,0 +1,15 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "Строка CSV, отклоненная при импорте")
+public class UserImportErrorDTO {
+    @Schema(description = "Номер строки в файле, заголовок - строка 1", example = "42")
+    private long line;
+    @Schema(description = "Причина отклонения", example = "Email already exists")
+    private String error;
+}
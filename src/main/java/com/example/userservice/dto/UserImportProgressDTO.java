@@ -0,0 +1,21 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "Ход импорта пользователей из CSV")
+public class UserImportProgressDTO {
+    @Schema(description = "Обработано строк данных", example = "10000")
+    private long rows;
+    @Schema(description = "Создано пользователей", example = "9990")
+    private long created;
+    @Schema(description = "Отклонено строк", example = "10")
+    private long rejected;
+    @Schema(description = "Импорт завершен", example = "false")
+    private boolean done;
+    @Schema(description = "Ошибка, прервавшая импорт", example = "Row is longer than 65536 characters")
+    private String error;
+}
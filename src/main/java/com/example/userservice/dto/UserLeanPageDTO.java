@@ -0,0 +1,24 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "Страница пользователей в компактном представлении без ссылок у каждого пользователя")
+public class UserLeanPageDTO {
+    @Schema(description = "Пользователи на странице, отсортированные по ID")
+    private List<UserDTO> users;
+    @Schema(description = "Курсор следующей страницы (ID последнего пользователя) или null, если страница последняя",
+            example = "20"
+    )
+    private Long nextCursor;
+    @Schema(description = "Ссылки страницы: self, next, create и шаблон user с подстановкой {id}",
+            example = "{\"self\": \"http://localhost:8080/api/users\", \"user\": \"http://localhost:8080/api/users/{id}\"}"
+    )
+    private Map<String, String> links;
+}
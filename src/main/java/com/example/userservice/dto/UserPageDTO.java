@@ -0,0 +1,19 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "Страница пользователей")
+public class UserPageDTO {
+    @Schema(description = "Пользователи на странице, отсортированные по ID")
+    private List<UserDTO> users;
+    @Schema(description = "Курсор следующей страницы (ID последнего пользователя) или null, если страница последняя",
+            example = "20"
+    )
+    private Long nextCursor;
+}
@@ -0,0 +1,17 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "Страница результатов поиска пользователей")
+public class UserSearchPageDTO {
+    @Schema(description = "Найденные пользователи: сначала совпадения по префиксу, затем по схожести")
+    private List<UserDTO> users;
+    @Schema(description = "Смещение следующей страницы или null, если страница последняя", example = "20")
+    private Integer nextOffset;
+}
@@ -0,0 +1,10 @@
+package com.example.userservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+// Only the fields requested with ?fields= are set, the rest are left out of the JSON
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Пользователь только с запрошенными полями")
+public class UserSparseDTO extends UserDTO {
+}
@@ -0,0 +1,23 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "Состояние выгрузки пользователей в топик user-state")
+public class UserStateSnapshotDTO {
+    @Schema(description = "Выгрузка выполняется", example = "false")
+    private boolean running;
+    @Schema(description = "Время запуска последней выгрузки", example = "2023-01-01T00:00:00")
+    private LocalDateTime startedAt;
+    @Schema(description = "Время завершения последней выгрузки", example = "2023-01-01T00:05:00")
+    private LocalDateTime finishedAt;
+    @Schema(description = "Количество пользователей, поставленных в outbox", example = "100000")
+    private long queuedUsers;
+    @Schema(description = "Ошибка, прервавшая выгрузку", example = "null")
+    private String error;
+}
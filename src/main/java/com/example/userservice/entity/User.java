@@ -3,15 +3,17 @@ package com.example.userservice.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "users_email_key", columnList = "email", unique = true))
 @Data
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
     @Column
     private String name;
@@ -21,9 +23,22 @@ public class User {
     private Integer age;
     @Column
     private LocalDateTime created_at;
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column
+    private LocalDateTime updated_at;
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 
     @PrePersist
     protected void onCreate() {
         created_at = LocalDateTime.now().withNano(0);
+        updated_at = created_at;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updated_at = LocalDateTime.now();
     }
 }
@@ -0,0 +1,39 @@
+package com.example.userservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_outbox", indexes = @Index(name = "idx_user_outbox_sent_at_id", columnList = "sent_at, id"))
+@Data
+public class UserOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_outbox_seq")
+    @SequenceGenerator(name = "user_outbox_seq", sequenceName = "user_outbox_seq", allocationSize = 50)
+    private Long id;
+    @Column(nullable = false)
+    private String operation;
+    @Column
+    private Long user_id;
+    @Column
+    private String email;
+    @Column(nullable = false)
+    private LocalDateTime created_at;
+    @Column
+    private LocalDateTime sent_at;
+
+    public static UserOutboxEvent of(String operation, Long userId, String email) {
+        UserOutboxEvent event = new UserOutboxEvent();
+        event.setOperation(operation);
+        event.setUser_id(userId);
+        event.setEmail(email);
+        return event;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        created_at = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.userservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class UserEvent {
+    private long userId;
+    private UserEventType type;
+    private String email;
+    private Instant timestamp;
+}
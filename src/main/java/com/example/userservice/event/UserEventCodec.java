@@ -0,0 +1,53 @@
+package com.example.userservice.event;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+// Binary user event payload, schema version 1:
+//   byte schema version | byte event type | long user id | long timestamp (epoch millis) | short email length | email (UTF-8)
+// A null email has length -1. Later versions only append fields, so a reader decodes the fields it knows
+// and ignores the rest, and consumers can be upgraded after producers.
+public final class UserEventCodec {
+    public static final byte SCHEMA_VERSION = 1;
+    public static final String EVENT_TYPE_HEADER = "event-type";
+    public static final String SCHEMA_VERSION_HEADER = "schema-version";
+
+    private static final int FIXED_SIZE = 1 + 1 + Long.BYTES + Long.BYTES + Short.BYTES;
+
+    private UserEventCodec() {
+    }
+
+    public static byte[] encode(UserEvent event) {
+        byte[] email = event.getEmail() == null ? null : event.getEmail().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_SIZE + (email == null ? 0 : email.length));
+        buffer.put(SCHEMA_VERSION);
+        buffer.put(event.getType().getCode());
+        buffer.putLong(event.getUserId());
+        buffer.putLong(event.getTimestamp().toEpochMilli());
+        if (email == null) {
+            buffer.putShort((short) -1);
+        } else {
+            buffer.putShort((short) email.length);
+            buffer.put(email);
+        }
+        return buffer.array();
+    }
+
+    public static UserEvent decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        byte version = buffer.get();
+        if (version < 1) {
+            throw new IllegalArgumentException("Unsupported user event schema version: " + version);
+        }
+        UserEventType type = UserEventType.fromCode(buffer.get());
+        long userId = buffer.getLong();
+        Instant timestamp = Instant.ofEpochMilli(buffer.getLong());
+        short emailLength = buffer.getShort();
+        String email = null;
+        if (emailLength >= 0) {
+            email = new String(payload, buffer.position(), emailLength, StandardCharsets.UTF_8);
+        }
+        return new UserEvent(userId, type, email, timestamp);
+    }
+}
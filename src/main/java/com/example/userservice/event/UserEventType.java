@@ -0,0 +1,46 @@
+package com.example.userservice.event;
+
+import java.util.Arrays;
+
+// Outbox operation, one-byte wire code and the event-type header value of each user event
+public enum UserEventType {
+    CREATED("create", (byte) 1, "user.created"),
+    DELETED("delete", (byte) 2, "user.deleted"),
+    UPDATED("update", (byte) 3, "user.updated");
+
+    private final String operation;
+    private final byte code;
+    private final String headerValue;
+
+    UserEventType(String operation, byte code, String headerValue) {
+        this.operation = operation;
+        this.code = code;
+        this.headerValue = headerValue;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public String getHeaderValue() {
+        return headerValue;
+    }
+
+    public static UserEventType fromOperation(String operation) {
+        return Arrays.stream(values())
+                .filter(type -> type.operation.equals(operation))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown user event operation: " + operation));
+    }
+
+    public static UserEventType fromCode(byte code) {
+        return Arrays.stream(values())
+                .filter(type -> type.code == code)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown user event code: " + code));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.userservice.event;
+
+import com.example.userservice.entity.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Latest state of a user on the compacted user-state topic, schema version 1:
+//   byte schema version | long id | long version | long created_at | long updated_at | int age | name | email
+// Times are epoch millis and strings are a short UTF-8 length plus bytes; Long.MIN_VALUE, Integer.MIN_VALUE
+// and length -1 stand for null. As with user events, later versions only append fields.
+public final class UserStateCodec {
+    public static final byte SCHEMA_VERSION = 1;
+
+    private static final int FIXED_SIZE = 1 + 4 * Long.BYTES + Integer.BYTES + 2 * Short.BYTES;
+
+    private UserStateCodec() {
+    }
+
+    public static byte[] encode(User user) {
+        byte[] name = bytes(user.getName());
+        byte[] email = bytes(user.getEmail());
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_SIZE + length(name) + length(email));
+        buffer.put(SCHEMA_VERSION);
+        buffer.putLong(user.getId());
+        buffer.putLong(user.getVersion() == null ? Long.MIN_VALUE : user.getVersion());
+        buffer.putLong(toMillis(user.getCreated_at()));
+        buffer.putLong(toMillis(user.getUpdated_at()));
+        buffer.putInt(user.getAge() == null ? Integer.MIN_VALUE : user.getAge());
+        putString(buffer, name);
+        putString(buffer, email);
+        return buffer.array();
+    }
+
+    public static User decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        byte version = buffer.get();
+        if (version < 1) {
+            throw new IllegalArgumentException("Unsupported user state schema version: " + version);
+        }
+        User user = new User();
+        user.setId(buffer.getLong());
+        long userVersion = buffer.getLong();
+        user.setVersion(userVersion == Long.MIN_VALUE ? null : userVersion);
+        user.setCreated_at(fromMillis(buffer.getLong()));
+        user.setUpdated_at(fromMillis(buffer.getLong()));
+        int age = buffer.getInt();
+        user.setAge(age == Integer.MIN_VALUE ? null : age);
+        user.setName(getString(buffer));
+        user.setEmail(getString(buffer));
+        return user;
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        buffer.putShort(value == null ? -1 : (short) value.length);
+        if (value != null) {
+            buffer.put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? Long.MIN_VALUE : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return millis == Long.MIN_VALUE ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
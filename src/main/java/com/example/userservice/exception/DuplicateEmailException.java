@@ -0,0 +1,15 @@
+package com.example.userservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class DuplicateEmailException extends RuntimeException {
+    public DuplicateEmailException(String email) {
+        super("User already exists with email: " + email);
+    }
+
+    public DuplicateEmailException(Throwable cause) {
+        super("User already exists with one of the emails", cause);
+    }
+}
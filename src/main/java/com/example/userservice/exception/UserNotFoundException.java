@@ -0,0 +1,7 @@
+package com.example.userservice.exception;
+
+public class UserNotFoundException extends RuntimeException {
+    public UserNotFoundException(Long id) {
+        super("User not found by id: " + id);
+    }
+}
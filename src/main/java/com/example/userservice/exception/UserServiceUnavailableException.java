@@ -0,0 +1,11 @@
+package com.example.userservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class UserServiceUnavailableException extends RuntimeException {
+    public UserServiceUnavailableException() {
+        super("User service is unavailable");
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.userservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class UserVersionConflictException extends RuntimeException {
+    public UserVersionConflictException(Long id, Long expectedVersion) {
+        super("User " + id + " was modified concurrently, expected version: " + expectedVersion);
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.userservice.mapper;
 
 import com.example.userservice.dto.UserDTO;
+import com.example.userservice.dto.UserSparseDTO;
 import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserField;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.Set;
+
 @Service
 public class UserMapper {
     private static final Logger logger = LoggerFactory.getLogger(UserMapper.class);
@@ -18,6 +24,30 @@ public class UserMapper {
         dto.setEmail(entity.getEmail());
         dto.setAge(entity.getAge());
         dto.setCreated_at(entity.getCreated_at());
+        dto.setVersion(entity.getVersion());
+        return dto;
+    }
+
+    public UserDTO mapToSparseUserDTO(Map<String, Object> row) {
+        UserSparseDTO dto = new UserSparseDTO();
+        dto.setId(row.get("id") == null ? null : ((Number) row.get("id")).longValue());
+        dto.setName((String) row.get("name"));
+        dto.setEmail((String) row.get("email"));
+        dto.setAge(row.get("age") == null ? null : ((Number) row.get("age")).intValue());
+        dto.setCreated_at(row.get("created_at") == null ? null : ((Timestamp) row.get("created_at")).toLocalDateTime());
+        dto.setVersion(row.get("version") == null ? null : ((Number) row.get("version")).longValue());
+        return dto;
+    }
+
+    // Cuts a full user down to a sparse fieldset, used when a fallback copy has to stand in for a projection
+    public UserDTO project(UserDTO user, Set<UserField> fields) {
+        UserSparseDTO dto = new UserSparseDTO();
+        dto.setId(user.getId());
+        dto.setName(fields.contains(UserField.NAME) ? user.getName() : null);
+        dto.setEmail(fields.contains(UserField.EMAIL) ? user.getEmail() : null);
+        dto.setAge(fields.contains(UserField.AGE) ? user.getAge() : null);
+        dto.setCreated_at(fields.contains(UserField.CREATED_AT) ? user.getCreated_at() : null);
+        dto.setVersion(fields.contains(UserField.VERSION) ? user.getVersion() : null);
         return dto;
     }
 
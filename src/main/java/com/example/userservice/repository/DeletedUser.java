@@ -0,0 +1,11 @@
+package com.example.userservice.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DeletedUser {
+    private Long id;
+    private String email;
+}
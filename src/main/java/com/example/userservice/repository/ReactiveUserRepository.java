@@ -0,0 +1,100 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.entity.User;
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+// Same tables and sequences as the JPA side. Every insert takes its own nextval: Hibernate hands out
+// [value - 49, value] for each value it draws, so a single drawn value never collides with those blocks
+@Repository
+@ConditionalOnProperty(prefix = "user-service.reactive", name = "enabled", havingValue = "true")
+public class ReactiveUserRepository {
+    private static final String USER_COLUMNS = "id, name, email, age, created_at, updated_at, version";
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveUserRepository(DatabaseClient reactiveDatabaseClient) {
+        this.databaseClient = reactiveDatabaseClient;
+    }
+
+    public Flux<User> findPage(long after, int limit) {
+        return databaseClient.sql("SELECT " + USER_COLUMNS + " FROM users WHERE id > :after ORDER BY id LIMIT :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveUserRepository::mapUser)
+                .all();
+    }
+
+    // Rows are fetched from a portal in chunks as the subscriber requests them, so a slow client
+    // holds back the query instead of filling memory
+    public Flux<User> streamAfter(long after) {
+        return databaseClient.sql("SELECT " + USER_COLUMNS + " FROM users WHERE id > :after ORDER BY id")
+                .bind("after", after)
+                .filter((statement, next) -> next.execute(statement.fetchSize(STREAM_FETCH_SIZE)))
+                .map(ReactiveUserRepository::mapUser)
+                .all();
+    }
+
+    public Mono<User> findById(long id) {
+        return databaseClient.sql("SELECT " + USER_COLUMNS + " FROM users WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::mapUser)
+                .one();
+    }
+
+    public Mono<Boolean> existsByEmail(String email) {
+        return databaseClient.sql("SELECT EXISTS (SELECT 1 FROM users WHERE email = :email)")
+                .bind("email", email)
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+
+    public Mono<User> insert(User user) {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                "INSERT INTO users (id, name, email, age, created_at, updated_at, version) "
+                        + "VALUES (nextval('users_seq'), :name, :email, :age, :now, :now, 0) RETURNING " + USER_COLUMNS)
+                .bind("now", now);
+        spec = user.getName() == null ? spec.bindNull("name", String.class) : spec.bind("name", user.getName());
+        spec = user.getEmail() == null ? spec.bindNull("email", String.class) : spec.bind("email", user.getEmail());
+        spec = user.getAge() == null ? spec.bindNull("age", Integer.class) : spec.bind("age", user.getAge());
+        return spec.map(ReactiveUserRepository::mapUser).one();
+    }
+
+    public Mono<DeletedUser> deleteReturning(long id) {
+        return databaseClient.sql("DELETE FROM users WHERE id = :id RETURNING id, email")
+                .bind("id", id)
+                .map(row -> new DeletedUser(row.get("id", Long.class), row.get("email", String.class)))
+                .one();
+    }
+
+    public Mono<Void> insertOutboxEvent(String operation, Long userId, String email) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                "INSERT INTO user_outbox (id, operation, user_id, email, created_at) "
+                        + "VALUES (nextval('user_outbox_seq'), :operation, :userId, :email, :now)")
+                .bind("operation", operation)
+                .bind("userId", userId)
+                .bind("now", LocalDateTime.now());
+        spec = email == null ? spec.bindNull("email", String.class) : spec.bind("email", email);
+        return spec.then();
+    }
+
+    private static User mapUser(Readable row) {
+        User user = new User();
+        user.setId(row.get("id", Long.class));
+        user.setName(row.get("name", String.class));
+        user.setEmail(row.get("email", String.class));
+        user.setAge(row.get("age", Integer.class));
+        user.setCreated_at(row.get("created_at", LocalDateTime.class));
+        user.setUpdated_at(row.get("updated_at", LocalDateTime.class));
+        user.setVersion(row.get("version", Long.class));
+        return user;
+    }
+}
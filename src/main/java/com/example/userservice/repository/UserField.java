@@ -0,0 +1,33 @@
+package com.example.userservice.repository;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// Whitelist of the columns a sparse fieldset may select; names match the UserDTO properties
+public enum UserField {
+    ID("id"),
+    NAME("name"),
+    EMAIL("email"),
+    AGE("age"),
+    CREATED_AT("created_at"),
+    VERSION("version");
+
+    private final String column;
+
+    UserField(String column) {
+        this.column = column;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public static Optional<UserField> of(String name) {
+        return Arrays.stream(values()).filter(field -> field.column.equals(name)).findFirst();
+    }
+
+    public static String names() {
+        return Arrays.stream(values()).map(UserField::getColumn).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.entity.User;
+
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public interface UserJdbcRepository {
+
+    List<DeletedUser> deleteByIdsReturning(Collection<Long> ids);
+
+    List<DeletedUser> deleteCreatedBeforeReturning(LocalDateTime createdBefore);
+
+    UserPageValidator findPageValidator(Long after, int limit);
+
+    List<Map<String, Object>> findPageColumns(Set<UserField> fields, Long after, int limit);
+
+    Optional<Map<String, Object>> findColumnsById(Set<UserField> fields, Long id);
+
+    List<User> search(String query, int limit, int offset);
+
+    List<Long> insertOutboxEvents(String operation, Long after, int limit);
+
+    Map<Long, Long> importUsers(Reader rows, LocalDateTime createdAt, String operation);
+
+    Optional<User> updateReturning(Long id, Long expectedVersion, String name, String email, Integer age);
+}
@@ -0,0 +1,201 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.entity.User;
+import lombok.AllArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Set-based statements that JPQL cannot express, each one a single round trip to Postgres
+@AllArgsConstructor
+public class UserJdbcRepositoryImpl implements UserJdbcRepository {
+    private static final RowMapper<DeletedUser> DELETED_USER_MAPPER =
+            (rs, rowNum) -> new DeletedUser(rs.getLong("id"), rs.getString("email"));
+
+    private static final RowMapper<User> USER_MAPPER = (rs, rowNum) -> {
+        User user = new User();
+        user.setId(rs.getLong("id"));
+        user.setName(rs.getString("name"));
+        user.setEmail(rs.getString("email"));
+        user.setAge(rs.getObject("age", Integer.class));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        user.setCreated_at(createdAt == null ? null : createdAt.toLocalDateTime());
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        user.setUpdated_at(updatedAt == null ? null : updatedAt.toLocalDateTime());
+        user.setVersion(rs.getLong("version"));
+        return user;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The ids travel as one array parameter, so the statement is not limited by the bind parameter count
+    @Override
+    public List<DeletedUser> deleteByIdsReturning(Collection<Long> ids) {
+        return jdbcTemplate.query(connection -> {
+            Array idArray = connection.createArrayOf("bigint", ids.toArray());
+            var statement = connection.prepareStatement("DELETE FROM users WHERE id = ANY(?) RETURNING id, email");
+            statement.setArray(1, idArray);
+            return statement;
+        }, DELETED_USER_MAPPER);
+    }
+
+    @Override
+    public List<DeletedUser> deleteCreatedBeforeReturning(LocalDateTime createdBefore) {
+        return jdbcTemplate.query("DELETE FROM users WHERE created_at < ? RETURNING id, email",
+                DELETED_USER_MAPPER, Timestamp.valueOf(createdBefore));
+    }
+
+    // Aggregates over exactly the rows a keyset page (plus its look-ahead row) would return: any insert, delete
+    // or update inside the window changes at least one of them, without loading or mapping the rows
+    @Override
+    public UserPageValidator findPageValidator(Long after, int limit) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) AS row_count, max(p.id) AS last_id, "
+                        + "coalesce(sum(p.version), 0) AS version_sum, max(p.updated_at) AS last_modified "
+                        + "FROM (SELECT id, version, updated_at FROM users WHERE id > ? ORDER BY id LIMIT ?) p",
+                (rs, rowNum) -> {
+                    Timestamp lastModified = rs.getTimestamp("last_modified");
+                    return new UserPageValidator(rs.getLong("row_count"), rs.getObject("last_id", Long.class),
+                            rs.getLong("version_sum"), lastModified == null ? null : lastModified.toLocalDateTime());
+                },
+                after, limit);
+    }
+
+    // Sparse fieldsets read plain column maps: only the requested columns leave Postgres
+    // and no entity, persistence context entry or dirty-checking snapshot is created
+    @Override
+    public List<Map<String, Object>> findPageColumns(Set<UserField> fields, Long after, int limit) {
+        return jdbcTemplate.queryForList("SELECT " + columns(fields) + " FROM users WHERE id > ? ORDER BY id LIMIT ?",
+                after, limit);
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findColumnsById(Set<UserField> fields, Long id) {
+        return jdbcTemplate.queryForList("SELECT " + columns(fields) + " FROM users WHERE id = ?", id)
+                .stream().findFirst();
+    }
+
+    // Every condition is served by the trigram indexes, so Postgres combines them with a BitmapOr and ranks
+    // only the matching rows: prefix matches first, then by similarity, ties broken by id for stable pages
+    @Override
+    public List<User> search(String query, int limit, int offset) {
+        String pattern = query.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        String contains = "%" + pattern + "%";
+        String prefix = pattern + "%";
+        return jdbcTemplate.query(
+                "SELECT id, name, email, age, created_at, updated_at, version FROM users "
+                        + "WHERE lower(name) LIKE ? OR lower(email) LIKE ? OR lower(name) % ? OR lower(email) % ? "
+                        + "ORDER BY (lower(name) LIKE ? OR lower(email) LIKE ?) DESC, "
+                        + "greatest(similarity(lower(name), ?), similarity(lower(email), ?)) DESC, id "
+                        + "LIMIT ? OFFSET ?",
+                USER_MAPPER,
+                contains, contains, query, query, prefix, prefix, query, query, limit, offset);
+    }
+
+    // One keyset batch of outbox rows for existing users (the user-state snapshot): the rows are written inside Postgres,
+    // no user row is read into the application, and the returned ids give the next cursor
+    @Override
+    public List<Long> insertOutboxEvents(String operation, Long after, int limit) {
+        return jdbcTemplate.queryForList(
+                "INSERT INTO user_outbox (id, operation, user_id, email, created_at) "
+                        + "SELECT nextval('user_outbox_seq'), ?, id, email, now() "
+                        + "FROM (SELECT id, email FROM users WHERE id > ? ORDER BY id LIMIT ?) b "
+                        + "RETURNING user_id",
+                Long.class, operation, after, limit);
+    }
+
+    // Bulk import of one batch, inside the caller's transaction: the rows (CSV with line, name, email, age) are
+    // streamed into a temporary staging table with COPY, then one statement inserts them into users and writes their
+    // create events to the outbox. The first row of each email wins, rows whose email already exists are skipped.
+    // Every user takes its own nextval like the reactive inserts do, the pooled blocks Hibernate draws never overlap
+    // a single drawn value. Returns the ids of the inserted users by line
+    @Override
+    public Map<Long, Long> importUsers(Reader rows, LocalDateTime createdAt, String operation) {
+        return jdbcTemplate.execute((ConnectionCallback<Map<Long, Long>>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TEMPORARY TABLE IF NOT EXISTS user_import "
+                        + "(line bigint, name varchar(255), email varchar(255), age integer) ON COMMIT DELETE ROWS");
+            }
+            try {
+                connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn("COPY user_import (line, name, email, age) FROM STDIN (FORMAT csv)", rows);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Map<Long, Long> ids = new HashMap<>();
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "WITH first_rows AS (SELECT DISTINCT ON (email) line, name, email, age FROM user_import "
+                            + "ORDER BY email, line), "
+                            + "inserted AS (INSERT INTO users (id, name, email, age, created_at, updated_at, version) "
+                            + "SELECT nextval('users_seq'), name, email, age, ?, ?, 0 FROM first_rows "
+                            + "ON CONFLICT (email) DO NOTHING RETURNING id, email), "
+                            + "events AS (INSERT INTO user_outbox (id, operation, user_id, email, created_at) "
+                            + "SELECT nextval('user_outbox_seq'), ?, id, email, now() FROM inserted) "
+                            + "SELECT f.line, i.id FROM first_rows f JOIN inserted i ON i.email = f.email")) {
+                Timestamp timestamp = Timestamp.valueOf(createdAt);
+                statement.setTimestamp(1, timestamp);
+                statement.setTimestamp(2, timestamp);
+                statement.setString(3, operation);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        ids.put(resultSet.getLong("line"), resultSet.getLong("id"));
+                    }
+                }
+            }
+            return ids;
+        });
+    }
+
+    // Only the non-null fields are written and the version check is part of the WHERE clause,
+    // so a partial update is one statement and a lost update shows up as zero rows
+    @Override
+    public Optional<User> updateReturning(Long id, Long expectedVersion, String name, String email, Integer age) {
+        StringBuilder sql = new StringBuilder("UPDATE users SET version = version + 1, updated_at = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.valueOf(LocalDateTime.now()));
+        if (name != null) {
+            sql.append(", name = ?");
+            args.add(name);
+        }
+        if (email != null) {
+            sql.append(", email = ?");
+            args.add(email);
+        }
+        if (age != null) {
+            sql.append(", age = ?");
+            args.add(age);
+        }
+        sql.append(" WHERE id = ?");
+        args.add(id);
+        if (expectedVersion != null) {
+            sql.append(" AND version = ?");
+            args.add(expectedVersion);
+        }
+        sql.append(" RETURNING id, name, email, age, created_at, updated_at, version");
+        return jdbcTemplate.query(sql.toString(), USER_MAPPER, args.toArray()).stream().findFirst();
+    }
+
+    // Column names only ever come from the UserField whitelist, never from the request
+    private static String columns(Set<UserField> fields) {
+        return fields.stream().map(UserField::getColumn).collect(Collectors.joining(", "));
+    }
+}
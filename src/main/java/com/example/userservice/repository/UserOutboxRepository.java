@@ -0,0 +1,35 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.entity.UserOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserOutboxRepository extends JpaRepository<UserOutboxEvent, Long> {
+
+    // SKIP LOCKED lets several instances drain the outbox without sending the same rows twice,
+    // but their batches race each other, so events are only ordered within one instance
+    @Query(value = "SELECT * FROM user_outbox WHERE sent_at IS NULL ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<UserOutboxEvent> lockNextUnsent(int limit);
+
+    @Modifying
+    @Query("update UserOutboxEvent e set e.sent_at = :sentAt where e.id in :ids")
+    int markSent(Collection<Long> ids, LocalDateTime sentAt);
+
+    @Query("select count(e) from UserOutboxEvent e where e.sent_at is null")
+    long countUnsent();
+
+    @Query("select min(e.created_at) from UserOutboxEvent e where e.sent_at is null")
+    LocalDateTime findOldestUnsentCreatedAt();
+
+    @Modifying
+    @Query("delete from UserOutboxEvent e where e.sent_at < :before")
+    int deleteSentBefore(LocalDateTime before);
+}
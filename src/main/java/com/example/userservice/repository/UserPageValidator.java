@@ -0,0 +1,15 @@
+package com.example.userservice.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class UserPageValidator {
+    private long count;
+    private Long lastId;
+    private long versionSum;
+    private LocalDateTime lastModified;
+}
@@ -0,0 +1,149 @@
+package com.example.userservice.service;
+
+import com.example.userservice.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+// In-memory Bloom filter over user emails: "absent" is definite and skips the database,
+// "present" may be a false positive and is confirmed by the unique index on users.email.
+// Deleted emails cannot be removed from the bits, so the filter is rebuilt once enough deletes pile up
+@Component
+public class EmailBloomFilter {
+    private static final Logger logger = LoggerFactory.getLogger(EmailBloomFilter.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int bitCount;
+    private final int hashCount;
+    private final long rebuildAfterDeletes;
+    private final AtomicLong deletesSinceRebuild = new AtomicLong();
+
+    // null until the first rebuild completes, every email is then reported as possibly present
+    private volatile AtomicLongArray bits;
+    private volatile AtomicLongArray rebuilding;
+
+    public EmailBloomFilter(UserRepository userRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${user-service.email-filter.expected-insertions}") long expectedInsertions,
+                            @Value("${user-service.email-filter.false-positive-rate}") double falsePositiveRate,
+                            @Value("${user-service.email-filter.rebuild-after-deletes}") long rebuildAfterDeletes) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, optimalBits));
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.rebuildAfterDeletes = rebuildAfterDeletes;
+    }
+
+    public boolean mightContain(String email) {
+        AtomicLongArray current = bits;
+        if (current == null) {
+            return true;
+        }
+        long hash = hash(email);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = bitIndex(hash, i);
+            if ((current.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(String email) {
+        if (email == null) {
+            return;
+        }
+        long hash = hash(email);
+        set(bits, hash);
+        set(rebuilding, hash);
+    }
+
+    public void recordDeletes(int count) {
+        deletesSinceRebuild.addAndGet(count);
+    }
+
+    // The first build streams the whole table, so it runs on its own thread and does not delay readiness;
+    // until it completes every lookup falls through to the unique index
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofPlatform().name("email-filter-rebuild").daemon().start(this::rebuild);
+    }
+
+    @Scheduled(initialDelayString = "${user-service.email-filter.rebuild-check-interval}",
+            fixedDelayString = "${user-service.email-filter.rebuild-check-interval}")
+    public void rebuildIfStale() {
+        if (rebuilding == null && (bits == null || deletesSinceRebuild.get() >= rebuildAfterDeletes)) {
+            rebuild();
+        }
+    }
+
+    // Emails added while the table is streamed go to both bit sets, so the swap loses nothing
+    public synchronized void rebuild() {
+        AtomicLongArray next = new AtomicLongArray((bitCount + 63) / 64);
+        rebuilding = next;
+        deletesSinceRebuild.set(0);
+        try {
+            AtomicLong count = new AtomicLong();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    emails.forEach(email -> {
+                        set(next, hash(email));
+                        count.incrementAndGet();
+                    });
+                }
+            });
+            bits = next;
+            logger.info("Email filter rebuilt with " + count.get() + " emails, " + bitCount + " bits, " + hashCount + " hashes");
+        } catch (RuntimeException e) {
+            logger.error("Failed to rebuild email filter", e);
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    private void set(AtomicLongArray target, long hash) {
+        if (target == null) {
+            return;
+        }
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = bitIndex(hash, i);
+            long mask = 1L << bit;
+            target.getAndUpdate(bit >>> 6, word -> word | mask);
+        }
+    }
+
+    // Double hashing: the two halves of one 64-bit hash generate all probe positions
+    private int bitIndex(long hash, int i) {
+        int combined = (int) hash + i * (int) (hash >>> 32);
+        return (combined < 0 ? ~combined : combined) % bitCount;
+    }
+
+    // FNV-1a followed by the murmur3 finalizer, so both halves are well mixed
+    private static long hash(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : email.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53cb9e5L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
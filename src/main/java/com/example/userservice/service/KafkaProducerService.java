@@ -1,33 +1,243 @@
 package com.example.userservice.service;
 
+import com.example.userservice.event.UserEvent;
+import com.example.userservice.event.UserEventCodec;
+import com.example.userservice.event.UserStateCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Service;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// User events are keyed by user id, so they spread over all partitions and a user's events share one partition.
+// Records are sent in the order they are published, so one relay keeps a user's events in outbox order; several
+// instances claim outbox batches independently and may publish one user's events out of order.
+// Callers only put records into a bounded buffer, a single sender thread hands them to the producer,
+// so a broker that blocks on metadata or a full producer buffer never stalls a request thread
 @Service
-public class KafkaProducerService {
-    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+public class KafkaProducerService implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(KafkaProducerService.class);
 
     public static final String CREATE_OPERATION = "create";
-    static final String DELETE_OPERATION = "delete";
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    public static final String DELETE_OPERATION = "delete";
+    public static final String UPDATE_OPERATION = "update";
+    // Outbox rows written by the snapshot job, they only refresh the user-state topic
+    public static final String SNAPSHOT_OPERATION = "snapshot";
+    public static final String STATE_OPERATION = "state";
+    public static final String INVALIDATE_OPERATION = "invalidate";
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final String cacheInvalidationTopic;
+    private final String stateTopic;
+    private final BlockingQueue<PendingSend> buffer;
+    private final Duration offerTimeout;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+    private final boolean virtualThreads;
+    private final Executor callbackExecutor;
 
-    public KafkaProducerService(KafkaTemplate<String, String> kafkaTemplate) {
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private Thread sender;
+
+    public KafkaProducerService(KafkaTemplate<String, byte[]> kafkaTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${user-service.cache.invalidation-topic}") String cacheInvalidationTopic,
+                                @Value("${user-service.kafka.state-topic}") String stateTopic,
+                                @Value("${user-service.kafka.buffer-capacity}") int bufferCapacity,
+                                @Value("${user-service.kafka.offer-timeout}") Duration offerTimeout,
+                                @Value("${user-service.virtual-threads.enabled:false}") boolean virtualThreads) {
         this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.cacheInvalidationTopic = cacheInvalidationTopic;
+        this.stateTopic = stateTopic;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.offerTimeout = offerTimeout;
+        this.virtualThreads = virtualThreads;
+        // Callers chain work onto the returned futures, with virtual threads that work leaves the producer I/O thread
+        this.callbackExecutor = virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : Runnable::run;
+        this.rejected = Counter.builder("kafka.producer.rejected")
+                .description("Records rejected because the send buffer was full")
+                .register(meterRegistry);
+        meterRegistry.gauge("kafka.producer.buffer.size", buffer, BlockingQueue::size);
+    }
+
+    public CompletableFuture<SendResult<String, byte[]>> sendUserEvent(UserEvent event) {
+        List<Header> headers = List.of(
+                new RecordHeader(UserEventCodec.EVENT_TYPE_HEADER,
+                        event.getType().getHeaderValue().getBytes(StandardCharsets.UTF_8)),
+                new RecordHeader(UserEventCodec.SCHEMA_VERSION_HEADER, new byte[]{UserEventCodec.SCHEMA_VERSION}));
+        return publish(kafkaTemplate.getDefaultTopic(), String.valueOf(event.getUserId()), UserEventCodec.encode(event),
+                headers, event.getType().getOperation());
+    }
+
+    // Latest state of a user on the compacted topic, a null state is the tombstone that lets compaction drop the key
+    public CompletableFuture<SendResult<String, byte[]>> sendUserState(long userId, byte[] state) {
+        List<Header> headers = state == null ? List.of()
+                : List.of(new RecordHeader(UserEventCodec.SCHEMA_VERSION_HEADER, new byte[]{UserStateCodec.SCHEMA_VERSION}));
+        return publish(stateTopic, String.valueOf(userId), state, headers, STATE_OPERATION);
+    }
+
+    // The invalidation listener reads plain strings, UTF-8 bytes are the same record on the wire
+    public CompletableFuture<SendResult<String, byte[]>> sendUserCacheInvalidation(String userId) {
+        return publish(cacheInvalidationTopic, null, userId.getBytes(StandardCharsets.UTF_8), List.of(),
+                INVALIDATE_OPERATION);
+    }
+
+    private CompletableFuture<SendResult<String, byte[]>> publish(String topic, String key, byte[] value,
+                                                                  List<Header> headers, String operation) {
+        PendingSend pending = new PendingSend(topic, key, value, headers, operation);
+        // Nothing drains the buffer after stop, failing at once spares callers waiting out their send timeout
+        if (stopped) {
+            reject(pending, "stopped", "Kafka sender is stopped");
+            return pending.result;
+        }
+        try {
+            if (!buffer.offer(pending, offerTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                logger.warn("Kafka send buffer is full, rejecting message for topic: " + topic);
+                reject(pending, "buffer_full", "Kafka send buffer is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.result.completeExceptionally(e);
+        }
+        return pending.result;
+    }
+
+    private void reject(PendingSend pending, String error, String message) {
+        recordError(pending, error);
+        pending.result.completeExceptionally(new RejectedExecutionException(message));
     }
 
-    public void sendUserCreate(String email) {
-        kafkaTemplate.send(kafkaTemplate.getDefaultTopic(),
-                CREATE_OPERATION,
-                email);
-        logger.info("Create kafka message was sent");
+    private void drain() {
+        while (running || !buffer.isEmpty()) {
+            try {
+                PendingSend pending = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (pending != null) {
+                    send(pending);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
     }
 
-    public void sendUserDelete(String email) {
-       kafkaTemplate.send(kafkaTemplate.getDefaultTopic(),
-                DELETE_OPERATION,
-                email);
-        logger.info("Delete kafka message was sent");
+    private void send(PendingSend pending) {
+        long start = System.nanoTime();
+        try {
+            kafkaTemplate.send(new ProducerRecord<>(pending.topic, null, pending.key, pending.value, pending.headers))
+                    .whenCompleteAsync((result, throwable) -> {
+                        recordAck(pending, start, throwable);
+                        if (throwable != null) {
+                            logger.error("Kafka message to topic " + pending.topic + " failed: " + throwable.getMessage());
+                            pending.result.completeExceptionally(throwable);
+                        } else {
+                            logger.debug("Kafka message acknowledged, topic: " + pending.topic
+                                    + ", offset: " + result.getRecordMetadata().offset());
+                            pending.result.complete(result);
+                        }
+                    }, callbackExecutor);
+        } catch (Exception e) {
+            recordAck(pending, start, e);
+            logger.error("Kafka message to topic " + pending.topic + " failed: " + e.getMessage());
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    private void recordAck(PendingSend pending, long start, Throwable throwable) {
+        Timer.builder("kafka.producer.ack")
+                .description("Time from handing a record to the producer until the broker acknowledged it")
+                .tag("topic", pending.topic)
+                .tag("operation", pending.operation)
+                .tag("outcome", throwable == null ? "success" : "failure")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (throwable != null) {
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause() : throwable;
+            recordError(pending, cause.getClass().getSimpleName());
+        }
+    }
+
+    private void recordError(PendingSend pending, String error) {
+        Counter.builder("kafka.producer.errors")
+                .description("Records that were rejected or not acknowledged by the broker")
+                .tag("topic", pending.topic)
+                .tag("operation", pending.operation)
+                .tag("error", error)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @Override
+    public void start() {
+        stopped = false;
+        running = true;
+        sender = virtualThreads
+                ? Thread.ofVirtual().name("kafka-producer-sender").start(this::drain)
+                : Thread.ofPlatform().name("kafka-producer-sender").daemon().start(this::drain);
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        running = false;
+        try {
+            sender.join(Duration.ofSeconds(10).toMillis());
+            kafkaTemplate.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Records that raced in while the sender was finishing are failed too instead of waiting forever
+        int unsent = 0;
+        for (PendingSend pending; (pending = buffer.poll()) != null; unsent++) {
+            reject(pending, "stopped", "Kafka sender is stopped");
+        }
+        logger.info("Kafka sender stopped, " + unsent + " messages left unsent");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static final class PendingSend {
+        private final String topic;
+        private final String key;
+        private final byte[] value;
+        private final List<Header> headers;
+        private final String operation;
+        private final CompletableFuture<SendResult<String, byte[]>> result = new CompletableFuture<>();
+
+        private PendingSend(String topic, String key, byte[] value, List<Header> headers, String operation) {
+            this.topic = topic;
+            this.key = key;
+            this.value = value;
+            this.headers = headers;
+            this.operation = operation;
+        }
     }
 }
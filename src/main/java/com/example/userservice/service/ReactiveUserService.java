@@ -0,0 +1,117 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserDTO;
+import com.example.userservice.exception.DuplicateEmailException;
+import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.repository.ReactiveUserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.core.reactive.ReactiveKafkaProducerTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Non-blocking counterpart of UserService for the /reactive/api/users endpoints: the same tables, outbox,
+// email filter and cache invalidation, with the database and Kafka reached through R2DBC and reactor-kafka
+@Service
+@ConditionalOnProperty(prefix = "user-service.reactive", name = "enabled", havingValue = "true")
+public class ReactiveUserService {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserService.class);
+
+    private final ReactiveUserRepository reactiveUserRepository;
+    private final UserMapper userMapper;
+    private final TransactionalOperator transactionalOperator;
+    private final ReactiveKafkaProducerTemplate<String, String> reactiveKafkaProducer;
+    private final UserCacheInvalidator userCacheInvalidator;
+    private final UserFallbackCache userFallbackCache;
+    private final EmailBloomFilter emailBloomFilter;
+    private final String cacheInvalidationTopic;
+
+    public ReactiveUserService(ReactiveUserRepository reactiveUserRepository,
+                               UserMapper userMapper,
+                               TransactionalOperator reactiveTransactionalOperator,
+                               ReactiveKafkaProducerTemplate<String, String> reactiveKafkaProducer,
+                               UserCacheInvalidator userCacheInvalidator,
+                               UserFallbackCache userFallbackCache,
+                               EmailBloomFilter emailBloomFilter,
+                               @Value("${user-service.cache.invalidation-topic}") String cacheInvalidationTopic) {
+        this.reactiveUserRepository = reactiveUserRepository;
+        this.userMapper = userMapper;
+        this.transactionalOperator = reactiveTransactionalOperator;
+        this.reactiveKafkaProducer = reactiveKafkaProducer;
+        this.userCacheInvalidator = userCacheInvalidator;
+        this.userFallbackCache = userFallbackCache;
+        this.emailBloomFilter = emailBloomFilter;
+        this.cacheInvalidationTopic = cacheInvalidationTopic;
+    }
+
+    public Flux<UserDTO> getUsersPage(Long after, int limit) {
+        long cursor = after == null ? 0L : after;
+        logger.debug("Getting reactive page of users after ID: " + cursor + ", limit: " + limit);
+        return reactiveUserRepository.findPage(cursor, limit).map(userMapper::mapToUserDTO);
+    }
+
+    public Flux<UserDTO> streamUsers(Long after) {
+        long cursor = after == null ? 0L : after;
+        logger.debug("Streaming users after ID: " + cursor);
+        return reactiveUserRepository.streamAfter(cursor).map(userMapper::mapToUserDTO);
+    }
+
+    public Mono<UserDTO> getUserById(Long id) {
+        logger.debug("Getting reactive user by id: " + id);
+        return reactiveUserRepository.findById(id).map(userMapper::mapToUserDTO);
+    }
+
+    public Mono<UserDTO> createUser(UserDTO userDTO) {
+        logger.debug("Creating reactive user: " + userDTO);
+        String email = userDTO.getEmail();
+        Mono<Boolean> taken = emailBloomFilter.mightContain(email)
+                ? reactiveUserRepository.existsByEmail(email)
+                : Mono.just(false);
+
+        return taken
+                .flatMap(exists -> exists
+                        ? Mono.error(new DuplicateEmailException(email))
+                        : reactiveUserRepository.insert(userMapper.mapToUserEntity(userDTO)))
+                .flatMap(savedUser -> reactiveUserRepository.insertOutboxEvent(
+                                KafkaProducerService.CREATE_OPERATION, savedUser.getId(), savedUser.getEmail())
+                        .thenReturn(savedUser))
+                .as(transactionalOperator::transactional)
+                .onErrorMap(DataIntegrityViolationException.class, e -> new DuplicateEmailException(email))
+                .doOnNext(savedUser -> {
+                    emailBloomFilter.add(savedUser.getEmail());
+                    logger.info("User created ID: " + savedUser.getId());
+                })
+                .map(userMapper::mapToUserDTO);
+    }
+
+    // Emits true after the delete has committed, empty when there was no such user
+    public Mono<Boolean> deleteUser(Long id) {
+        logger.debug("Deleting reactive user ID: " + id);
+        return reactiveUserRepository.deleteReturning(id)
+                .flatMap(deletedUser -> reactiveUserRepository.insertOutboxEvent(
+                                KafkaProducerService.DELETE_OPERATION, deletedUser.getId(), deletedUser.getEmail())
+                        .thenReturn(true))
+                .as(transactionalOperator::transactional)
+                .doOnNext(deleted -> {
+                    userCacheInvalidator.evictLocal(id);
+                    userFallbackCache.evictUsers(List.of(id));
+                    emailBloomFilter.recordDeletes(1);
+                    publishCacheInvalidation(id);
+                    logger.info("User deleted ID: " + id);
+                });
+    }
+
+    // Fire and forget like the blocking path: peers that miss it keep the entry until it expires
+    private void publishCacheInvalidation(Long id) {
+        reactiveKafkaProducer.send(cacheInvalidationTopic, String.valueOf(id))
+                .subscribe(result -> logger.debug("Cache invalidation sent for user ID: " + id),
+                        throwable -> logger.error("Failed to send cache invalidation for user ID: " + id, throwable));
+    }
+}
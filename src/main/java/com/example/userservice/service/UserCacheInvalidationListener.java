@@ -0,0 +1,38 @@
+package com.example.userservice.service;
+
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+@AllArgsConstructor
+public class UserCacheInvalidationListener {
+    private static final Logger logger = LoggerFactory.getLogger(UserCacheInvalidationListener.class);
+
+    private final UserCacheInvalidator userCacheInvalidator;
+
+    // Random group id: every instance has to see every invalidation, not a share of them
+    @KafkaListener(
+            topics = "${user-service.cache.invalidation-topic}",
+            groupId = "${spring.application.name}-cache-${random.uuid}",
+            properties = {
+                    "key.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+                    "value.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+                    "auto.offset.reset=latest",
+                    "enable.auto.commit=false"
+            })
+    public void onInvalidation(String userId) {
+        logger.debug("Received cache invalidation for user ID: " + userId);
+        if (UserCacheInvalidator.EVICT_ALL.equals(userId)) {
+            userCacheInvalidator.evictAllLocal();
+            return;
+        }
+        try {
+            userCacheInvalidator.evictLocal(Long.valueOf(userId));
+        } catch (NumberFormatException e) {
+            logger.error("Skipping malformed cache invalidation: " + userId);
+        }
+    }
+}
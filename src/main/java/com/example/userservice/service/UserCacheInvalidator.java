@@ -0,0 +1,95 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.CacheConfig;
+import com.example.userservice.config.ReplicaDataSources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Objects;
+
+@Service
+public class UserCacheInvalidator {
+    private static final Logger logger = LoggerFactory.getLogger(UserCacheInvalidator.class);
+
+    public static final String EVICT_ALL = "*";
+    // Above this many ids one "clear all" message is cheaper than a message per user
+    private static final int MAX_SINGLE_EVICTIONS = 100;
+
+    private final Cache usersCache;
+    private final KafkaProducerService kafkaProducer;
+    private final TaskScheduler taskScheduler;
+    private final Duration replicaWindow;
+
+    public UserCacheInvalidator(CacheManager cacheManager, KafkaProducerService kafkaProducer,
+                                TaskScheduler taskScheduler, ReplicaDataSources replicaDataSources,
+                                @Value("${user-service.datasource.max-lag}") Duration maxLag,
+                                @Value("${user-service.datasource.lag-check-interval}") Duration lagCheckInterval) {
+        this.usersCache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.USERS_CACHE));
+        this.kafkaProducer = kafkaProducer;
+        this.taskScheduler = taskScheduler;
+        this.replicaWindow = replicaDataSources.isEmpty() ? null : maxLag.plus(lagCheckInterval);
+    }
+
+    public void evict(Long id) {
+        afterCommit(() -> {
+            evictLocal(id);
+            kafkaProducer.sendUserCacheInvalidation(String.valueOf(id));
+        });
+    }
+
+    public void evict(Collection<Long> ids) {
+        if (ids.size() <= MAX_SINGLE_EVICTIONS) {
+            ids.forEach(this::evict);
+            return;
+        }
+        afterCommit(() -> {
+            evictAllLocal();
+            kafkaProducer.sendUserCacheInvalidation(EVICT_ALL);
+        });
+    }
+
+    public void evictLocal(Long id) {
+        logger.debug("Evicting cached user ID: " + id);
+        usersCache.evict(id);
+        afterReplicaWindow(() -> usersCache.evict(id));
+    }
+
+    public void evictAllLocal() {
+        logger.debug("Clearing users cache");
+        usersCache.clear();
+        afterReplicaWindow(usersCache::clear);
+    }
+
+    // A read served by a lagging replica right after the eviction may cache the old row again,
+    // so the eviction is repeated once every replica still in rotation must have replayed the write
+    private void afterReplicaWindow(Runnable eviction) {
+        if (replicaWindow != null) {
+            taskScheduler.schedule(eviction, Instant.now().plus(replicaWindow));
+        }
+    }
+
+    // Evicting before commit would let a concurrent read cache the old row again,
+    // so inside a transaction both the local and the peer eviction wait for the commit
+    private void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+}
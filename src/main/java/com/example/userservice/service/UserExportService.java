@@ -0,0 +1,57 @@
+package com.example.userservice.service;
+
+import com.example.userservice.entity.User;
+import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@AllArgsConstructor
+public class UserExportService {
+    private static final Logger logger = LoggerFactory.getLogger(UserExportService.class);
+
+    private static final int FLUSH_EVERY = UserRepository.EXPORT_FETCH_SIZE;
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    // Postgres only opens a server-side cursor inside a transaction, otherwise the driver
+    // reads the whole result set into memory regardless of the fetch size
+    @Transactional(readOnly = true)
+    public long exportUsers(OutputStream out) {
+        logger.info("Starting users export");
+        long count = 0;
+        try (Stream<User> users = userRepository.streamAllOrderById()) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                User user = iterator.next();
+                out.write(objectMapper.writeValueAsBytes(userMapper.mapToUserDTO(user)));
+                out.write('\n');
+                entityManager.detach(user);
+                if (++count == 1 || count % FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            logger.error("Users export aborted after " + count + " users: " + e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+        logger.info("Exported " + count + " users");
+        return count;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserDTO;
+import com.example.userservice.dto.UserPageDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+
+// Last known good reads, served only when the database is unavailable;
+// kept apart from the users cache so that they outlive its expiry
+@Component
+public class UserFallbackCache {
+    private final Cache<Long, UserDTO> users;
+    private final Cache<String, UserPageDTO> pages;
+
+    public UserFallbackCache(@Value("${user-service.resilience.fallback-cache-spec}") String spec) {
+        this.users = Caffeine.from(spec).build();
+        this.pages = Caffeine.from(spec).build();
+    }
+
+    public void putUser(UserDTO user) {
+        users.put(user.getId(), user);
+    }
+
+    public Optional<UserDTO> getUser(Long id) {
+        return Optional.ofNullable(users.getIfPresent(id));
+    }
+
+    public void evictUsers(Collection<Long> ids) {
+        users.invalidateAll(ids);
+    }
+
+    public void putPage(long after, int limit, UserPageDTO page) {
+        pages.put(after + ":" + limit, page);
+    }
+
+    public Optional<UserPageDTO> getPage(long after, int limit) {
+        return Optional.ofNullable(pages.getIfPresent(after + ":" + limit));
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserDTO;
+import com.example.userservice.dto.UserImportErrorDTO;
+import com.example.userservice.dto.UserImportProgressDTO;
+import com.example.userservice.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// CSV bulk import: rows are parsed and validated one at a time and loaded in batches with COPY, each batch in its
+// own transaction together with its outbox events, which the relay then publishes in batches. The response is
+// NDJSON: one line per rejected row and a progress line after every batch, the last one with done = true.
+// Batches run outside the resilience profiles, an import is a single sequential writer holding one connection
+@Service
+public class UserImportService {
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    // users.name and users.email are varchar(255), a longer value would fail the whole COPY
+    static final int MAX_TEXT_LENGTH = 255;
+    private static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+    private final UserRepository userRepository;
+    private final EmailBloomFilter emailBloomFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public UserImportService(UserRepository userRepository,
+                             EmailBloomFilter emailBloomFilter,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             @Value("${user-service.import.batch-size}") int batchSize) {
+        this.userRepository = userRepository;
+        this.emailBloomFilter = emailBloomFilter;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    public UserImportProgressDTO importUsers(InputStream in, OutputStream out) {
+        logger.info("Starting users import");
+        ImportRun run = new ImportRun(out);
+        try {
+            UserCsvReader csv = new UserCsvReader(
+                    new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), MAX_RECORD_LENGTH);
+            List<String> header = csv.next();
+            if (header == null) {
+                return run.finish("CSV is empty");
+            }
+            int nameColumn = column(header, "name");
+            int emailColumn = column(header, "email");
+            int ageColumn = column(header, "age");
+            if (emailColumn < 0) {
+                return run.finish("CSV header has no email column");
+            }
+
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                run.rows++;
+                long line = csv.getRecordLine();
+                if (record.size() != header.size()) {
+                    run.reject(line, "Expected " + header.size() + " columns, found " + record.size());
+                    continue;
+                }
+                UserDTO user = new UserDTO();
+                user.setName(value(record, nameColumn));
+                user.setEmail(value(record, emailColumn));
+                String error = parseAge(user, value(record, ageColumn));
+                if (error == null) {
+                    error = UserService.validate(user);
+                }
+                if (error == null) {
+                    error = validateText(user);
+                }
+                if (error != null) {
+                    run.reject(line, error);
+                    continue;
+                }
+                run.add(line, user);
+                if (run.lines.size() == batchSize) {
+                    flush(run);
+                }
+            }
+            flush(run);
+            return run.finish(null);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Users import stopped at row " + run.rows + ": " + e.getMessage());
+            return finishQuietly(run, e.getMessage());
+        } catch (DataAccessException e) {
+            logger.error("Users import failed after " + run.created + " users", e);
+            return finishQuietly(run, "Database error, rows after the last progress line were not imported");
+        } catch (IOException e) {
+            logger.error("Users import aborted after " + run.created + " users: " + e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // One COPY and one insert statement per batch; created_at is set like User.onCreate does
+    private void flush(ImportRun run) throws IOException {
+        if (run.lines.isEmpty()) {
+            return;
+        }
+        StringBuilder rows = new StringBuilder(run.lines.size() * 64);
+        for (int i = 0; i < run.lines.size(); i++) {
+            UserDTO user = run.users.get(i);
+            rows.append(run.lines.get(i)).append(',')
+                    .append(quote(user.getName())).append(',')
+                    .append(quote(user.getEmail())).append(',')
+                    .append(user.getAge() == null ? "" : user.getAge()).append('\n');
+        }
+        LocalDateTime createdAt = LocalDateTime.now().withNano(0);
+        Map<Long, Long> ids = transactionTemplate.execute(status -> userRepository.importUsers(
+                new StringReader(rows.toString()), createdAt, KafkaProducerService.CREATE_OPERATION));
+
+        for (int i = 0; i < run.lines.size(); i++) {
+            if (ids != null && ids.containsKey(run.lines.get(i))) {
+                run.created++;
+                emailBloomFilter.add(run.users.get(i).getEmail());
+            } else {
+                run.reject(run.lines.get(i), "Email already exists");
+            }
+        }
+        run.lines.clear();
+        run.users.clear();
+        run.write(new UserImportProgressDTO(run.rows, run.created, run.rejected, false, null));
+        run.out.flush();
+        logger.debug("Users import: " + run.rows + " rows, " + run.created + " created");
+    }
+
+    private UserImportProgressDTO finishQuietly(ImportRun run, String error) {
+        try {
+            return run.finish(error);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int column(List<String> header, String name) {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).trim().toLowerCase(Locale.ROOT).equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // An empty unquoted or quoted field is a missing value
+    private static String value(List<String> record, int column) {
+        if (column < 0 || record.get(column).isEmpty()) {
+            return null;
+        }
+        return record.get(column);
+    }
+
+    private static String parseAge(UserDTO user, String age) {
+        if (age == null) {
+            return null;
+        }
+        try {
+            user.setAge(Integer.valueOf(age.trim()));
+            return null;
+        } catch (NumberFormatException e) {
+            return "Age must be a number";
+        }
+    }
+
+    private static String validateText(UserDTO user) {
+        for (String value : new String[]{user.getName(), user.getEmail()}) {
+            if (value == null) {
+                continue;
+            }
+            if (value.length() > MAX_TEXT_LENGTH) {
+                return "Name and email must not be longer than " + MAX_TEXT_LENGTH + " characters";
+            }
+            if (value.indexOf('\0') >= 0) {
+                return "Name and email must not contain NUL characters";
+            }
+        }
+        return null;
+    }
+
+    // Postgres CSV: a quoted value is text, an empty unquoted field is NULL
+    private static String quote(String value) {
+        return value == null ? "" : '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private final class ImportRun {
+        private final OutputStream out;
+        private final List<Long> lines = new ArrayList<>();
+        private final List<UserDTO> users = new ArrayList<>();
+        private long rows;
+        private long created;
+        private long rejected;
+
+        private ImportRun(OutputStream out) {
+            this.out = out;
+        }
+
+        private void add(long line, UserDTO user) {
+            lines.add(line);
+            users.add(user);
+        }
+
+        private void reject(long line, String error) throws IOException {
+            rejected++;
+            write(new UserImportErrorDTO(line, error));
+        }
+
+        private void write(Object value) throws IOException {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        }
+
+        private UserImportProgressDTO finish(String error) throws IOException {
+            UserImportProgressDTO progress = new UserImportProgressDTO(rows, created, rejected, true, error);
+            write(progress);
+            out.flush();
+            logger.info("Users import finished: " + rows + " rows, " + created + " created, " + rejected + " rejected"
+                    + (error == null ? "" : ", stopped: " + error));
+            return progress;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.userservice.service;
+
+import com.example.userservice.entity.User;
+import com.example.userservice.entity.UserOutboxEvent;
+import com.example.userservice.event.UserEvent;
+import com.example.userservice.event.UserEventType;
+import com.example.userservice.event.UserStateCodec;
+import com.example.userservice.repository.UserOutboxRepository;
+import com.example.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class UserOutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(UserOutboxRelay.class);
+
+    private final UserOutboxRepository outboxRepository;
+    private final UserRepository userRepository;
+    private final KafkaProducerService kafkaProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Duration retention;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public UserOutboxRelay(UserOutboxRepository outboxRepository,
+                           UserRepository userRepository,
+                           KafkaProducerService kafkaProducer,
+                           TransactionTemplate transactionTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${user-service.outbox.batch-size}") int batchSize,
+                           @Value("${user-service.outbox.send-timeout}") Duration sendTimeout,
+                           @Value("${user-service.outbox.retention}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.userRepository = userRepository;
+        this.kafkaProducer = kafkaProducer;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.retention = retention;
+
+        Gauge.builder("user.outbox.pending", pending, AtomicLong::get)
+                .description("User events written to the outbox and not yet acknowledged by Kafka")
+                .register(meterRegistry);
+        Gauge.builder("user.outbox.lag", lagMillis, value -> value.get() / 1000.0)
+                .description("Age of the oldest user event waiting in the outbox")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${user-service.outbox.relay-interval}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (Exception e) {
+            logger.error("Outbox relay failed, unsent events will be retried", e);
+        } finally {
+            updateLag();
+        }
+    }
+
+    @Scheduled(cron = "${user-service.outbox.purge-cron}")
+    public void purgeSent() {
+        Integer purged = transactionTemplate.execute(status ->
+                outboxRepository.deleteSentBefore(LocalDateTime.now().minus(retention)));
+        logger.info("Purged " + purged + " sent outbox events");
+    }
+
+    // Rows stay locked until Kafka acknowledged the whole batch, a failure rolls the claim back
+    // and the batch is sent again on the next run (at-least-once delivery)
+    private int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<UserOutboxEvent> events = outboxRepository.lockNextUnsent(batchSize);
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            List<CompletableFuture<?>> acks = new ArrayList<>(events.size());
+            List<Long> ids = new ArrayList<>(events.size());
+            Map<Long, Boolean> deletedByUser = new LinkedHashMap<>();
+            for (UserOutboxEvent event : events) {
+                if (!KafkaProducerService.SNAPSHOT_OPERATION.equals(event.getOperation())) {
+                    acks.add(send(event));
+                }
+                deletedByUser.put(event.getUser_id(),
+                        KafkaProducerService.DELETE_OPERATION.equals(event.getOperation()));
+                ids.add(event.getId());
+            }
+            acks.addAll(sendStates(deletedByUser));
+            awaitAcks(acks);
+
+            outboxRepository.markSent(ids, LocalDateTime.now());
+            return events.size();
+        });
+        if (relayed != null && relayed > 0) {
+            logger.debug("Relayed " + relayed + " outbox events to kafka");
+        }
+        return relayed == null ? 0 : relayed;
+    }
+
+    // The event time is when the change was written to the outbox, not when the relay got to it
+    private CompletableFuture<?> send(UserOutboxEvent event) {
+        return kafkaProducer.sendUserEvent(new UserEvent(event.getUser_id(),
+                UserEventType.fromOperation(event.getOperation()), event.getEmail(),
+                event.getCreated_at().atZone(ZoneId.systemDefault()).toInstant()));
+    }
+
+    // The state is read when the batch is relayed, not when the change happened, so several changes of one user
+    // in a batch become a single record with the current row; a user that is gone gets a tombstone
+    private List<CompletableFuture<?>> sendStates(Map<Long, Boolean> deletedByUser) {
+        List<Long> existing = deletedByUser.entrySet().stream()
+                .filter(entry -> !entry.getValue())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        Map<Long, User> users = existing.isEmpty() ? Map.of()
+                : userRepository.findAllById(existing).stream()
+                        .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<CompletableFuture<?>> acks = new ArrayList<>(deletedByUser.size());
+        for (Long userId : deletedByUser.keySet()) {
+            User user = users.get(userId);
+            acks.add(kafkaProducer.sendUserState(userId, user == null ? null : UserStateCodec.encode(user)));
+        }
+        return acks;
+    }
+
+    private void awaitAcks(List<CompletableFuture<?>> acks) {
+        try {
+            CompletableFuture.allOf(acks.toArray(new CompletableFuture[0]))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for kafka acks", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Kafka did not acknowledge outbox batch", e);
+        }
+    }
+
+    private void updateLag() {
+        try {
+            pending.set(outboxRepository.countUnsent());
+            LocalDateTime oldest = outboxRepository.findOldestUnsentCreatedAt();
+            lagMillis.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()));
+        } catch (Exception e) {
+            logger.warn("Failed to measure outbox lag: " + e.getMessage());
+        }
+    }
+}
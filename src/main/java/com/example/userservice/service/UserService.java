@@ -1,126 +1,495 @@
 package com.example.userservice.service;
 
+import com.example.userservice.config.CacheConfig;
+import com.example.userservice.config.UserResilienceProfiles;
+import com.example.userservice.dto.UserBatchResultDTO;
 import com.example.userservice.dto.UserDTO;
+import com.example.userservice.dto.UserPageDTO;
+import com.example.userservice.dto.UserSearchPageDTO;
 import com.example.userservice.entity.User;
+import com.example.userservice.entity.UserOutboxEvent;
+import com.example.userservice.exception.DuplicateEmailException;
+import com.example.userservice.exception.UserNotFoundException;
+import com.example.userservice.exception.UserServiceUnavailableException;
+import com.example.userservice.exception.UserVersionConflictException;
 import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.repository.DeletedUser;
+import com.example.userservice.repository.UserField;
+import com.example.userservice.repository.UserOutboxRepository;
+import com.example.userservice.repository.UserPageValidator;
 import com.example.userservice.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+// One latency histogram per operation: user.service{method=...}, recorded by the TimedAspect from MetricsConfig
 @Service
 @AllArgsConstructor
+@Timed(value = "user.service", description = "UserService operations, including fallbacks", histogram = true)
 public class UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_BATCH_SIZE = 1000;
+    public static final int MIN_SEARCH_QUERY_LENGTH = 3;
+    public static final int MAX_SEARCH_QUERY_LENGTH = 100;
+    public static final int MAX_SEARCH_OFFSET = 1000;
+    public static final int MAX_HTML_PAGE_SIZE = 500;
+    public static final Set<String> SORT_PROPERTIES = Set.of("id", "name", "email", "age", "created_at");
+    private static final int BATCH_FLUSH_SIZE = 500;
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
-    private final KafkaProducerService kafkaProducer;
-    private final CircuitBreakerFactory circuitBreakerFactory;
-
-    @Transactional
-    public List<UserDTO> getAllUsers() {
-        logger.debug("Getting list of all users");
-        List<UserDTO> users = circuitBreakerFactory.create("user-service")
-                .run(() ->{
-                    return userRepository.findAll().stream()
+    private final UserOutboxRepository userOutboxRepository;
+    private final UserResilienceProfiles resilienceProfiles;
+    private final UserCacheInvalidator userCacheInvalidator;
+    private final EntityManager entityManager;
+    private final UserFallbackCache userFallbackCache;
+    private final EmailBloomFilter emailBloomFilter;
+
+    public UserPageDTO getUsersPage(Long after, Integer limit) {
+        long cursor = cursor(after);
+        int pageSize = pageSize(limit);
+        logger.debug("Getting page of users after ID: " + cursor + ", limit: " + pageSize);
+
+        UserPageDTO page = resilienceProfiles.getList()
+                .execute(() -> {
+                    // One extra row tells whether a next page exists without a count query
+                    List<UserDTO> users = userRepository
+                            .findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.ofSize(pageSize + 1)).stream()
                             .map(userMapper::mapToUserDTO)
-                            .sorted(Comparator.comparing(UserDTO::getId))
                             .collect(Collectors.toList());
+                    UserPageDTO usersPage = users.size() > pageSize
+                            ? new UserPageDTO(users.subList(0, pageSize), users.get(pageSize - 1).getId())
+                            : new UserPageDTO(users, null);
+                    userFallbackCache.putPage(cursor, pageSize, usersPage);
+                    return usersPage;
+                }, throwable -> {
+                    logger.error("Fail on getUsersPage after ID: " + cursor + ", serving last known page", throwable);
+                    return userFallbackCache.getPage(cursor, pageSize).orElseThrow(UserServiceUnavailableException::new);
+                });
+        logger.info("Get " + page.getUsers().size() + " users after ID: " + cursor);
+        return page;
+    }
+
+    public UserPageDTO getUsersPage(Long after, Integer limit, Set<UserField> fields) {
+        long cursor = cursor(after);
+        int pageSize = pageSize(limit);
+        logger.debug("Getting page of users after ID: " + cursor + ", limit: " + pageSize + ", fields: " + fields);
+
+        UserPageDTO page = resilienceProfiles.getList()
+                .execute(() -> {
+                    List<UserDTO> users = userRepository.findPageColumns(fields, cursor, pageSize + 1).stream()
+                            .map(userMapper::mapToSparseUserDTO)
+                            .collect(Collectors.toList());
+                    return users.size() > pageSize
+                            ? new UserPageDTO(users.subList(0, pageSize), users.get(pageSize - 1).getId())
+                            : new UserPageDTO(users, null);
                 }, throwable -> {
-                    logger.error("Fail on getAllUsers");
-                    return List.of();
+                    logger.error("Fail on getUsersPage after ID: " + cursor + ", serving last known page", throwable);
+                    UserPageDTO lastKnown = userFallbackCache.getPage(cursor, pageSize)
+                            .orElseThrow(UserServiceUnavailableException::new);
+                    return new UserPageDTO(lastKnown.getUsers().stream()
+                            .map(user -> userMapper.project(user, fields))
+                            .collect(Collectors.toList()), lastKnown.getNextCursor());
                 });
-        logger.info("Get " + users.size() + " users");
-        return users;
+        logger.info("Get " + page.getUsers().size() + " users after ID: " + cursor);
+        return page;
     }
 
+    // Offset pages for the HTML list; id breaks ties so rows with equal sort values keep a stable order
+    public Slice<UserDTO> getUsersSlice(int page, int size, String sortProperty, Sort.Direction direction) {
+        String property = SORT_PROPERTIES.contains(sortProperty) ? sortProperty : "id";
+        Sort sort = property.equals("id")
+                ? Sort.by(direction, "id")
+                : sortBy(direction, property).and(Sort.by(direction, "id"));
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_HTML_PAGE_SIZE)), sort);
+        logger.debug("Getting users slice: " + pageRequest);
 
-    @Transactional
+        Slice<UserDTO> slice = resilienceProfiles.getList()
+                .execute(() -> userRepository.findAllBy(pageRequest).map(userMapper::mapToUserDTO),
+                        throwable -> {
+                            logger.error("Fail on getUsersSlice: " + pageRequest, throwable);
+                            throw new UserServiceUnavailableException();
+                        });
+        logger.info("Get " + slice.getNumberOfElements() + " users on page " + pageRequest.getPageNumber());
+        return slice;
+    }
+
+    // Spring Data reads "_" in a property name as a nested path and would reject created_at, so such keys go to
+    // the JPQL order by unchecked; only keys from SORT_PROPERTIES get here
+    private static Sort sortBy(Sort.Direction direction, String property) {
+        return property.contains("_") ? JpaSort.unsafe(direction, property) : Sort.by(direction, property);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
     public UserDTO getUserById(Long id) {
         logger.debug("Getting user by id: " + id);
 
-        return (UserDTO) circuitBreakerFactory.create("user-service")
-                .run(() -> userRepository.findById(id)
-                                .map(userMapper::mapToUserDTO)
+        return resilienceProfiles.getReadOne()
+                .execute(() -> {
+                            UserDTO user = userRepository.findById(id)
+                                    .map(userMapper::mapToUserDTO)
+                                    .orElseThrow(() -> {
+                                        logger.error("User not found by id: " + id);
+                                        return new UserNotFoundException(id);
+                                    });
+                            userFallbackCache.putUser(user);
+                            return user;
+                        },
+                        throwable -> {
+                            logger.error("Failed to get user, ID: " + id + ", serving last known user", throwable);
+                            return userFallbackCache.getUser(id).orElseThrow(UserServiceUnavailableException::new);
+                        });
+    }
+
+    public UserDTO getUserById(Long id, Set<UserField> fields) {
+        logger.debug("Getting user by id: " + id + ", fields: " + fields);
+
+        return resilienceProfiles.getReadOne()
+                .execute(() -> userRepository.findColumnsById(fields, id)
+                                .map(userMapper::mapToSparseUserDTO)
                                 .orElseThrow(() -> {
-                                    logger.error("User not found by id: " +  id);
-                                    return new RuntimeException("User not found by id: " + id);
+                                    logger.error("User not found by id: " + id);
+                                    return new UserNotFoundException(id);
                                 }),
                         throwable -> {
-                            logger.error("Failed to get user, ID: " +  id);
-                            return  new RuntimeException("User service is unavailable");
+                            logger.error("Failed to get user, ID: " + id + ", serving last known user", throwable);
+                            return userFallbackCache.getUser(id)
+                                    .map(user -> userMapper.project(user, fields))
+                                    .orElseThrow(UserServiceUnavailableException::new);
+                        });
+    }
+
+    public UserSearchPageDTO searchUsers(String query, Integer offset, Integer limit) {
+        String normalizedQuery = query.trim().toLowerCase(Locale.ROOT);
+        int start = offset == null ? 0 : Math.max(0, Math.min(offset, MAX_SEARCH_OFFSET));
+        int pageSize = pageSize(limit);
+        logger.debug("Searching users by: " + normalizedQuery + ", offset: " + start + ", limit: " + pageSize);
+
+        UserSearchPageDTO page = resilienceProfiles.getList()
+                .execute(() -> {
+                    List<UserDTO> users = userRepository.search(normalizedQuery, pageSize + 1, start).stream()
+                            .map(userMapper::mapToUserDTO)
+                            .collect(Collectors.toList());
+                    return users.size() > pageSize
+                            ? new UserSearchPageDTO(users.subList(0, pageSize), start + pageSize)
+                            : new UserSearchPageDTO(users, null);
+                }, throwable -> {
+                    logger.error("Fail on searchUsers by: " + normalizedQuery, throwable);
+                    throw new UserServiceUnavailableException();
+                });
+        logger.info("Found " + page.getUsers().size() + " users by: " + normalizedQuery);
+        return page;
+    }
+
+    public Optional<UserDTO> getUserByEmail(String email) {
+        logger.debug("Getting user by email: " + email);
+
+        return resilienceProfiles.getReadOne()
+                .execute(() -> userRepository.findByEmail(email).map(userMapper::mapToUserDTO),
+                        throwable -> {
+                            logger.error("Failed to get user by email: " + email, throwable);
+                            throw new UserServiceUnavailableException();
+                        });
+    }
+
+    // Validators for conditional GET: they only read versions and aggregates, so a matching
+    // If-None-Match is answered before any entity is loaded or mapped; null disables the check
+    public String getUserETag(Long id) {
+        return resilienceProfiles.getReadOne()
+                .execute(() -> userRepository.findVersionById(id).map(String::valueOf).orElse(null),
+                        throwable -> {
+                            logger.error("Failed to get version of user ID: " + id);
+                            return null;
                         });
     }
 
-    @Transactional
+    public String getUsersPageETag(Long after, Integer limit) {
+        long cursor = cursor(after);
+        int pageSize = pageSize(limit);
+        return resilienceProfiles.getList()
+                .execute(() -> {
+                    UserPageValidator validator = userRepository.findPageValidator(cursor, pageSize + 1);
+                    String value = validator.getCount() + ":" + validator.getLastId() + ":"
+                            + validator.getVersionSum() + ":" + validator.getLastModified();
+                    return DigestUtils.md5DigestAsHex(value.getBytes(StandardCharsets.UTF_8));
+                }, throwable -> {
+                    logger.error("Failed to get validator of users page after ID: " + cursor);
+                    return null;
+                });
+    }
+
     public UserDTO createUser(UserDTO userDTO) {
         logger.debug("Creating user: " + userDTO);
 
-        return circuitBreakerFactory.create("user-service")
-                .run(() -> {
+        return resilienceProfiles.getWrite()
+                .execute(() -> {
                             User user = userMapper.mapToUserEntity(userDTO);
-                            User savedUser = userRepository.save(user);
-                            kafkaProducer.sendUserCreate(userDTO.getEmail());
+                            checkEmailIsFree(user.getEmail());
+                            User savedUser;
+                            try {
+                                savedUser = userRepository.saveAndFlush(user);
+                            } catch (DataIntegrityViolationException e) {
+                                throw new DuplicateEmailException(user.getEmail());
+                            }
+                            emailBloomFilter.add(savedUser.getEmail());
+                            userOutboxRepository.save(UserOutboxEvent.of(
+                                    KafkaProducerService.CREATE_OPERATION, savedUser.getId(), savedUser.getEmail()));
                             logger.info("User created ID: " + savedUser.getId());
                             return userMapper.mapToUserDTO(savedUser);
                         },
                         throwable -> {
-                            logger.error("Failed to create user " + userDTO);
-                            throw new RuntimeException("User service is unavailable");
+                            logger.error("Failed to create user " + userDTO, throwable);
+                            throw new UserServiceUnavailableException();
+                        });
+    }
+
+    public List<UserBatchResultDTO> createUsers(List<UserDTO> userDTOs) {
+        logger.debug("Creating batch of " + userDTOs.size() + " users");
+
+        return resilienceProfiles.getWrite()
+                .execute(() -> {
+                            List<UserBatchResultDTO> results = new ArrayList<>(userDTOs.size());
+                            List<User> users = new ArrayList<>(BATCH_FLUSH_SIZE);
+                            List<Integer> indexes = new ArrayList<>(BATCH_FLUSH_SIZE);
+                            // Seeded with the stored emails, then collects the batch's own, so repeats are rejected too
+                            Set<String> takenEmails = findTakenEmails(userDTOs);
+                            for (int i = 0; i < userDTOs.size(); i++) {
+                                String error = validate(userDTOs.get(i));
+                                if (error == null && !takenEmails.add(userDTOs.get(i).getEmail())) {
+                                    error = "Email already exists";
+                                }
+                                if (error != null) {
+                                    results.add(UserBatchResultDTO.rejected(i, error));
+                                    continue;
+                                }
+                                users.add(userMapper.mapToUserEntity(userDTOs.get(i)));
+                                indexes.add(i);
+                                if (users.size() == BATCH_FLUSH_SIZE) {
+                                    saveBatch(users, indexes, results);
+                                }
+                            }
+                            saveBatch(users, indexes, results);
+                            takenEmails.forEach(emailBloomFilter::add);
+                            results.sort(Comparator.comparingInt(UserBatchResultDTO::getIndex));
+                            logger.info("Users batch created: " + indexes.size() + " of " + userDTOs.size());
+                            return results;
+                        },
+                        throwable -> {
+                            logger.error("Failed to create batch of " + userDTOs.size() + " users", throwable);
+                            throw new UserServiceUnavailableException();
                         });
     }
 
-    @Transactional
     public UserDTO updateUser(Long id, UserDTO userDTO) {
-        logger.debug("Update user ID: " + id);
+        return updateUser(id, userDTO, null);
+    }
+
+    public UserDTO updateUser(Long id, UserDTO userDTO, Long expectedVersion) {
+        logger.debug("Update user ID: " + id + ", expected version: " + expectedVersion);
 
-        return circuitBreakerFactory.create("userServiceCB")
-                .run(() -> {
-                            User existingUser = userRepository.findById(id)
+        return resilienceProfiles.getWrite()
+                .execute(() -> {
+                            // The update is plain JDBC, pending entity changes of the same transaction are
+                            // written first so it sees them and their version
+                            entityManager.flush();
+                            Optional<User> updated;
+                            try {
+                                updated = userRepository.updateReturning(id, expectedVersion,
+                                        userDTO.getName(), userDTO.getEmail(), userDTO.getAge());
+                            } catch (DataIntegrityViolationException e) {
+                                throw new DuplicateEmailException(userDTO.getEmail());
+                            }
+                            User updatedUser = updated
                                     .orElseThrow(() -> {
-                                        logger.error("User not found by id: "+ id);
-                                        return new RuntimeException("User not found by id: " + id);
+                                        if (!userRepository.existsById(id)) {
+                                            logger.error("User not found by id: " + id);
+                                            return new UserNotFoundException(id);
+                                        }
+                                        logger.warn("Version conflict on update user ID: " + id);
+                                        return new UserVersionConflictException(id, expectedVersion);
                                     });
 
-                            userMapper.updateUserFromDTO(userDTO, existingUser);
-                            User updatedUser = userRepository.save(existingUser);
+                            if (userDTO.getEmail() != null) {
+                                // The previous email stays in the filter until the next rebuild
+                                emailBloomFilter.add(userDTO.getEmail());
+                                emailBloomFilter.recordDeletes(1);
+                            }
+                            userOutboxRepository.save(UserOutboxEvent.of(
+                                    KafkaProducerService.UPDATE_OPERATION, id, updatedUser.getEmail()));
+                            userCacheInvalidator.evict(id);
                             logger.info("User updated ID: {}", id);
-                            return userMapper.mapToUserDTO(updatedUser);
+                            UserDTO updatedUserDTO = userMapper.mapToUserDTO(updatedUser);
+                            userFallbackCache.putUser(updatedUserDTO);
+                            return updatedUserDTO;
                         },
                         throwable -> {
                             logger.error("Failed to update user ID: " + id, throwable);
-                            throw new RuntimeException("User service is unavailable");
+                            throw new UserServiceUnavailableException();
                         });
     }
 
-    @Transactional
     public void deleteUser(Long id) {
         logger.debug("Deleting user ID: " + id);
 
-        circuitBreakerFactory.create("userServiceCB")
-                .run(() -> {
+        resilienceProfiles.getDelete()
+                .execute(() -> {
                             User user = userRepository.findById(id)
                                     .orElseThrow(() -> {
                                         logger.error("User not found by id: " + id);
-                                        return new RuntimeException("User not found by id: " + id);
+                                        return new UserNotFoundException(id);
                                     });
 
                             userRepository.delete(user);
-                            kafkaProducer.sendUserDelete(user.getEmail());
+                            userCacheInvalidator.evict(id);
+                            userFallbackCache.evictUsers(List.of(id));
+                            emailBloomFilter.recordDeletes(1);
+                            userOutboxRepository.save(UserOutboxEvent.of(
+                                    KafkaProducerService.DELETE_OPERATION, user.getId(), user.getEmail()));
                             logger.info("User deleted ID: {}", id);
                             return null;
                         },
                         throwable -> {
                             logger.error("Failed to delete user by id " + id, throwable);
-                            throw new RuntimeException("User service is unavailable");
+                            throw new UserServiceUnavailableException();
+                        });
+    }
+
+    public int deleteUsers(List<Long> ids) {
+        logger.debug("Deleting " + ids.size() + " users by ids");
+        return bulkDelete(() -> userRepository.deleteByIdsReturning(ids), "ids");
+    }
+
+    public int deleteUsersCreatedBefore(LocalDateTime createdBefore) {
+        logger.debug("Deleting users created before: " + createdBefore);
+        return bulkDelete(() -> userRepository.deleteCreatedBeforeReturning(createdBefore),
+                "created before " + createdBefore);
+    }
+
+    // One DELETE ... RETURNING statement instead of findById + delete per user,
+    // the returned emails feed the delete events that are written to the outbox in JDBC batches
+    private int bulkDelete(Supplier<List<DeletedUser>> deletion, String filter) {
+        return resilienceProfiles.getDelete()
+                .execute(() -> {
+                            List<DeletedUser> deletedUsers = deletion.get();
+                            List<Long> deletedIds = new ArrayList<>(deletedUsers.size());
+                            List<UserOutboxEvent> events = new ArrayList<>(BATCH_FLUSH_SIZE);
+                            for (DeletedUser deletedUser : deletedUsers) {
+                                deletedIds.add(deletedUser.getId());
+                                events.add(UserOutboxEvent.of(
+                                        KafkaProducerService.DELETE_OPERATION, deletedUser.getId(), deletedUser.getEmail()));
+                                if (events.size() == BATCH_FLUSH_SIZE) {
+                                    saveOutboxBatch(events);
+                                }
+                            }
+                            saveOutboxBatch(events);
+                            userCacheInvalidator.evict(deletedIds);
+                            userFallbackCache.evictUsers(deletedIds);
+                            emailBloomFilter.recordDeletes(deletedIds.size());
+                            logger.info("Users deleted by " + filter + ": " + deletedIds.size());
+                            return deletedIds.size();
+                        },
+                        throwable -> {
+                            logger.error("Failed to delete users by " + filter, throwable);
+                            throw new UserServiceUnavailableException();
                         });
     }
+
+    // Most new emails are answered by the filter alone, only possible duplicates reach the unique index
+    private void checkEmailIsFree(String email) {
+        if (email != null && emailBloomFilter.mightContain(email) && userRepository.existsByEmail(email)) {
+            logger.warn("User already exists with email: " + email);
+            throw new DuplicateEmailException(email);
+        }
+    }
+
+    private Set<String> findTakenEmails(List<UserDTO> userDTOs) {
+        Set<String> candidates = new HashSet<>();
+        for (UserDTO userDTO : userDTOs) {
+            if (userDTO != null && userDTO.getEmail() != null && emailBloomFilter.mightContain(userDTO.getEmail())) {
+                candidates.add(userDTO.getEmail());
+            }
+        }
+        return candidates.isEmpty() ? new HashSet<>() : new HashSet<>(userRepository.findExistingEmails(candidates));
+    }
+
+    private void saveOutboxBatch(List<UserOutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        userOutboxRepository.saveAll(events);
+        entityManager.flush();
+        entityManager.clear();
+        events.clear();
+    }
+
+    private static long cursor(Long after) {
+        return after == null ? 0L : after;
+    }
+
+    private static int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    // Ids come from the pooled sequence, so Hibernate can group the inserts into JDBC batches;
+    // flush and clear keep the persistence context bounded for large batches
+    private void saveBatch(List<User> users, List<Integer> indexes, List<UserBatchResultDTO> results) {
+        if (users.isEmpty()) {
+            return;
+        }
+        List<User> savedUsers = userRepository.saveAll(users);
+        userOutboxRepository.saveAll(savedUsers.stream()
+                .map(user -> UserOutboxEvent.of(KafkaProducerService.CREATE_OPERATION, user.getId(), user.getEmail()))
+                .collect(Collectors.toList()));
+        try {
+            // Flushed through the repository so the unique-index violation is translated like in createUser
+            userRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent insert took one of the emails after the pre-check, the whole batch rolls back
+            throw new DuplicateEmailException(e);
+        }
+        entityManager.clear();
+        for (int i = 0; i < savedUsers.size(); i++) {
+            results.add(UserBatchResultDTO.created(indexes.get(i), savedUsers.get(i).getId()));
+        }
+        users.clear();
+        indexes.clear();
+    }
+
+    static String validate(UserDTO userDTO) {
+        if (userDTO == null) {
+            return "User is required";
+        }
+        if (userDTO.getEmail() == null || userDTO.getEmail().isBlank()) {
+            return "Email is required";
+        }
+        if (userDTO.getAge() != null && userDTO.getAge() < 0) {
+            return "Age must not be negative";
+        }
+        return null;
+    }
 }
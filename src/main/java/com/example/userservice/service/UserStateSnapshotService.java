@@ -0,0 +1,83 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserStateSnapshotDTO;
+import com.example.userservice.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Fills the compacted user-state topic for existing users: every user gets a snapshot row in the outbox
+// and the relay publishes the current state of each one. Each batch commits on its own, so the relay
+// drains the first batches while later ones are still written and no transaction spans the whole table
+@Service
+public class UserStateSnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(UserStateSnapshotService.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long queuedUsers;
+    private volatile String error;
+
+    public UserStateSnapshotService(UserRepository userRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${user-service.kafka.snapshot-batch-size}") int batchSize) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    // Returns false when a snapshot is already running, only one runs per instance
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        queuedUsers = 0;
+        error = null;
+        Thread.ofPlatform().name("user-state-snapshot").daemon().start(this::run);
+        return true;
+    }
+
+    public UserStateSnapshotDTO getStatus() {
+        return new UserStateSnapshotDTO(running.get(), startedAt, finishedAt, queuedUsers, error);
+    }
+
+    void run() {
+        logger.info("User state snapshot started");
+        try {
+            long after = 0;
+            List<Long> userIds;
+            do {
+                long cursor = after;
+                userIds = transactionTemplate.execute(status -> userRepository.insertOutboxEvents(
+                        KafkaProducerService.SNAPSHOT_OPERATION, cursor, batchSize));
+                if (userIds == null || userIds.isEmpty()) {
+                    break;
+                }
+                after = Collections.max(userIds);
+                queuedUsers += userIds.size();
+                logger.debug("User state snapshot queued " + queuedUsers + " users, last ID: " + after);
+            } while (userIds.size() == batchSize);
+            logger.info("User state snapshot queued " + queuedUsers + " users");
+        } catch (Exception e) {
+            error = e.getMessage();
+            logger.error("User state snapshot failed after " + queuedUsers + " users", e);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+}
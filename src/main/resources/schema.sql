@@ -0,0 +1,15 @@
+-- Runs after Hibernate schema generation (spring.jpa.defer-datasource-initialization), every statement is idempotent
+
+-- users.id moved from an identity column to a pooled sequence (allocation size 50), so JDBC insert batching works.
+-- Move the sequence past ids handed out by the old identity column, it never moves backwards.
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('users_seq', (SELECT max(id) FROM users) + 50)
+WHERE (SELECT max(id) FROM users) >= (SELECT last_value FROM users_seq);
+
+-- Email lookups and duplicate checks go through this index, creation fails if duplicate emails already exist
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_key ON users (email);
+
+-- Search by partial name or email: trigram GIN indexes serve both the LIKE '%q%' and the similarity (%) operator
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS users_name_trgm_idx ON users USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS users_email_trgm_idx ON users USING gin (lower(email) gin_trgm_ops);
@@ -0,0 +1,65 @@
+package com.example.userservice.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.SpringApplication;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ConfigSnapshotRefresherTest {
+
+    @TempDir
+    private Path dir;
+
+    private Path snapshot;
+    private MockEnvironment environment;
+    private ConfigSnapshotRefresher refresher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        snapshot = dir.resolve("config").resolve("snapshot.properties");
+        environment = new MockEnvironment()
+                .withProperty(ConfigSnapshotEnvironmentPostProcessor.PATH_PROPERTY, snapshot.toString());
+        refresher = new ConfigSnapshotRefresher(environment, mock(ObjectProvider.class), mock(ObjectProvider.class),
+                Duration.ofMinutes(5));
+    }
+
+    @Test
+    void withoutSnapshot_ShouldKeepConfigServerImport() {
+        new ConfigSnapshotEnvironmentPostProcessor().postProcessEnvironment(environment, new SpringApplication());
+
+        assertNull(environment.getProperty("user-service.config-import"));
+    }
+
+    @Test
+    void shouldWriteSnapshotAndImportItOnNextStart() throws Exception {
+        Properties fetched = new Properties();
+        fetched.setProperty("spring.datasource.url", "jdbc:postgresql://db:5432/users");
+        fetched.setProperty("user-service.greeting", "Привет");
+
+        assertTrue(refresher.update(fetched));
+        assertFalse(refresher.update(fetched));
+
+        Properties stored = new Properties();
+        try (InputStream in = Files.newInputStream(snapshot)) {
+            stored.load(in);
+        }
+        assertEquals(fetched, stored);
+
+        MockEnvironment nextStart = new MockEnvironment()
+                .withProperty(ConfigSnapshotEnvironmentPostProcessor.PATH_PROPERTY, snapshot.toString());
+        new ConfigSnapshotEnvironmentPostProcessor().postProcessEnvironment(nextStart, new SpringApplication());
+        assertEquals("optional:file:" + snapshot.toAbsolutePath(), nextStart.getProperty("user-service.config-import"));
+    }
+}
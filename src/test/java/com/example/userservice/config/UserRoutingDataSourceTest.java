@@ -0,0 +1,88 @@
+package com.example.userservice.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private ReplicaDataSources replicaDataSources;
+
+    private UserRoutingDataSource routingDataSource;
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(2), Duration.ofSeconds(1));
+
+    @BeforeEach
+    void setUp() {
+        when(replicaDataSources.targets()).thenReturn(Map.of("replica-0", replica));
+        routingDataSource = new UserRoutingDataSource(primary, replicaDataSources);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readWriteTransaction_ShouldUsePrimary() {
+        assertEquals(UserRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+        verify(replicaDataSources, never()).nextHealthy();
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUseHealthyReplicaOrFallBackToPrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicaDataSources.nextHealthy()).thenReturn(Optional.of("replica-0")).thenReturn(Optional.empty());
+
+        assertEquals("replica-0", routingDataSource.determineCurrentLookupKey());
+        assertEquals(UserRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readAfterOwnWrite_ShouldUsePrimary() throws Exception {
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/users"), writeResponse, (request, response) -> { });
+        Cookie cookie = writeResponse.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        assertNotNull(cookie);
+        assertEquals(4, cookie.getMaxAge());
+
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/users/1");
+        read.setCookies(cookie);
+        AtomicReference<Object> key = new AtomicReference<>();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        filter.doFilter(read, new MockHttpServletResponse(), (request, response) -> {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(read));
+            key.set(routingDataSource.determineCurrentLookupKey());
+        });
+
+        assertEquals(UserRoutingDataSource.PRIMARY, key.get());
+        verify(replicaDataSources, never()).nextHealthy();
+    }
+}
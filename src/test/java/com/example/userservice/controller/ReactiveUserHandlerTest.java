@@ -0,0 +1,82 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserDTO;
+import com.example.userservice.exception.DuplicateEmailException;
+import com.example.userservice.service.ReactiveUserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveUserHandlerTest {
+
+    @Mock
+    private ReactiveUserService reactiveUserService;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToRouterFunction(new ReactiveUserHandler(reactiveUserService).routes()).build();
+    }
+
+    @Test
+    void shouldGetUserById() {
+        UserDTO user = new UserDTO();
+        user.setId(1L);
+        user.setEmail("test@test.com");
+        when(reactiveUserService.getUserById(1L)).thenReturn(Mono.just(user));
+
+        webTestClient.get().uri("/reactive/api/users/1").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.email").isEqualTo("test@test.com");
+    }
+
+    @Test
+    void whenUserNotFound_ShouldReturnNotFound() {
+        when(reactiveUserService.getUserById(-1L)).thenReturn(Mono.empty());
+
+        webTestClient.get().uri("/reactive/api/users/-1").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void whenNdjsonWithoutLimit_ShouldStreamAllUsers() {
+        UserDTO user = new UserDTO();
+        user.setId(1L);
+        when(reactiveUserService.streamUsers(null)).thenReturn(Flux.just(user));
+
+        webTestClient.get().uri("/reactive/api/users").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON);
+
+        verify(reactiveUserService, never()).getUsersPage(any(), anyInt());
+    }
+
+    @Test
+    void whenCreateWithoutEmail_ShouldReturnBadRequest() {
+        webTestClient.post().uri("/reactive/api/users").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Test\"}").exchange()
+                .expectStatus().isBadRequest();
+
+        verify(reactiveUserService, never()).createUser(any());
+    }
+
+    @Test
+    void whenCreateWithTakenEmail_ShouldReturnConflict() {
+        when(reactiveUserService.createUser(any())).thenReturn(Mono.error(new DuplicateEmailException("test@test.com")));
+
+        webTestClient.post().uri("/reactive/api/users").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"email\":\"test@test.com\"}").exchange()
+                .expectStatus().isEqualTo(409);
+    }
+}
@@ -3,11 +3,14 @@ package com.example.userservice.controller;
 import com.example.userservice.DataBaseIntegrationTestInitClass;
 import com.example.userservice.entity.User;
 import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -44,6 +47,42 @@ public class UserControllerIntegrationTest extends DataBaseIntegrationTestInitCl
                 .andExpect(model().attribute("users", hasSize(greaterThan(0))));
     }
 
+    @Test
+    void shouldSortByEveryAllowedColumn() throws Exception {
+        User user = new User();
+        user.setName("Sorted");
+        user.setEmail("sorted@test.com");
+        user.setAge(20);
+        userRepository.save(user);
+
+        for (String sort : UserService.SORT_PROPERTIES) {
+            for (String direction : List.of("asc", "desc")) {
+                mockMvc.perform(get("/users").param("sort", sort).param("direction", direction))
+                        .andExpect(status().isOk())
+                        .andExpect(model().attribute("sort", sort))
+                        .andExpect(model().attribute("users", hasSize(greaterThan(0))));
+            }
+        }
+    }
+
+    @Test
+    void shouldReturnOnePageOfUsersWithUnknownSortFallingBackToId() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setName("Test" + i);
+            user.setEmail("page" + i + "@test.com");
+            user.setAge(20);
+            userRepository.save(user);
+        }
+
+        mockMvc.perform(get("/users").param("size", "2").param("sort", "password"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("users", hasSize(2)))
+                .andExpect(model().attribute("sort", "id"))
+                .andExpect(model().attribute("hasNext", true))
+                .andExpect(model().attribute("hasPrevious", false));
+    }
+
     @Test
     void shouldReturnUserCreateForm() throws Exception {
         mockMvc.perform(get("/users/new"))
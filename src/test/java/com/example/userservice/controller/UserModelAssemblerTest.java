@@ -0,0 +1,59 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserDTO;
+import com.example.userservice.dto.UserLeanPageDTO;
+import com.example.userservice.dto.UserPageDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+public class UserModelAssemblerTest {
+
+    private final UserModelAssembler userModelAssembler = new UserModelAssembler();
+
+    @Test
+    void itemLinks_ShouldMatchControllerMappings() {
+        UserDTO user = new UserDTO();
+        user.setId(7L);
+
+        EntityModel<UserDTO> model = userModelAssembler.toModel(user);
+
+        String expected = linkTo(methodOn(UserRestController.class).getUserById(7L, null, null)).toUri().toString();
+        assertEquals(expected, model.getRequiredLink(IanaLinkRelations.SELF).getHref());
+        assertEquals(linkTo(methodOn(UserRestController.class).updateUser(7L, user, null)).toUri().toString(),
+                model.getRequiredLink("update").getHref());
+        assertEquals(linkTo(methodOn(UserRestController.class).deleteUser(7L)).toUri().toString(),
+                model.getRequiredLink("delete").getHref());
+    }
+
+    @Test
+    void pageModel_ShouldLinkNextPage() {
+        UserDTO user = new UserDTO();
+        user.setId(20L);
+
+        CollectionModel<EntityModel<UserDTO>> model =
+                userModelAssembler.toPageModel(new UserPageDTO(List.of(user), 20L), null, 1, null);
+
+        assertTrue(model.getRequiredLink(IanaLinkRelations.NEXT).getHref().contains("after=20"));
+        assertEquals(1, model.getContent().size());
+    }
+
+    @Test
+    void leanPage_ShouldCarryUserTemplateInsteadOfItemLinks() {
+        UserDTO user = new UserDTO();
+        user.setId(1L);
+
+        UserLeanPageDTO page = userModelAssembler.toLeanPage(new UserPageDTO(List.of(user), null), null, null, null);
+
+        assertTrue(page.getLinks().get("user").endsWith("/api/users/{id}"));
+        assertFalse(page.getLinks().containsKey(IanaLinkRelations.NEXT_VALUE));
+        assertSame(user, page.getUsers().get(0));
+    }
+}
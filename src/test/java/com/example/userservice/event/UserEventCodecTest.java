@@ -0,0 +1,47 @@
+package com.example.userservice.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserEventCodecTest {
+
+    @Test
+    void shouldRoundTripEvent() {
+        UserEvent event = new UserEvent(123456789L, UserEventType.DELETED, "пользователь@test.com",
+                Instant.parse("2025-01-01T12:00:00.123Z"));
+
+        byte[] payload = UserEventCodec.encode(event);
+
+        assertEquals(UserEventCodec.SCHEMA_VERSION, payload[0]);
+        assertEquals(event, UserEventCodec.decode(payload));
+    }
+
+    @Test
+    void shouldRoundTripEventWithoutEmail() {
+        UserEvent event = new UserEvent(1L, UserEventType.CREATED, null, Instant.ofEpochMilli(0));
+
+        assertEquals(event, UserEventCodec.decode(UserEventCodec.encode(event)));
+    }
+
+    @Test
+    void newerSchemaWithAppendedFields_ShouldStillDecode() {
+        UserEvent event = new UserEvent(7L, UserEventType.CREATED, "a@test.com", Instant.ofEpochMilli(5));
+        byte[] payload = UserEventCodec.encode(event);
+        ByteBuffer newer = ByteBuffer.allocate(payload.length + Long.BYTES).put(payload).putLong(99L);
+        newer.put(0, (byte) (UserEventCodec.SCHEMA_VERSION + 1));
+
+        assertEquals(event, UserEventCodec.decode(newer.array()));
+    }
+
+    @Test
+    void unknownEventType_ShouldBeRejected() {
+        byte[] payload = UserEventCodec.encode(new UserEvent(7L, UserEventType.CREATED, null, Instant.EPOCH));
+        payload[1] = 127;
+
+        assertThrows(IllegalArgumentException.class, () -> UserEventCodec.decode(payload));
+    }
+}
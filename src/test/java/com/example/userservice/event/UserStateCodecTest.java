@@ -0,0 +1,36 @@
+package com.example.userservice.event;
+
+import com.example.userservice.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserStateCodecTest {
+
+    @Test
+    void shouldRoundTripUser() {
+        User user = new User();
+        user.setId(42L);
+        user.setName("Пользователь");
+        user.setEmail("user@test.com");
+        user.setAge(30);
+        user.setCreated_at(LocalDateTime.of(2025, 1, 1, 12, 0, 0));
+        user.setUpdated_at(LocalDateTime.of(2025, 1, 2, 12, 0, 0, 123_000_000));
+        user.setVersion(3L);
+
+        byte[] payload = UserStateCodec.encode(user);
+
+        assertEquals(UserStateCodec.SCHEMA_VERSION, payload[0]);
+        assertEquals(user, UserStateCodec.decode(payload));
+    }
+
+    @Test
+    void shouldRoundTripNullFields() {
+        User user = new User();
+        user.setId(1L);
+
+        assertEquals(user, UserStateCodec.decode(UserStateCodec.encode(user)));
+    }
+}
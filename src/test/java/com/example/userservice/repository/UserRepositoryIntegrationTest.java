@@ -2,10 +2,14 @@ package com.example.userservice.repository;
 
 import com.example.userservice.DataBaseIntegrationTestInitClass;
 import com.example.userservice.entity.User;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -13,6 +17,8 @@ import static org.assertj.core.api.Assertions.*;
 public class UserRepositoryIntegrationTest extends DataBaseIntegrationTestInitClass {
     @Autowired
     UserRepository userRepository;
+    @Autowired
+    EntityManager entityManager;
 
     @Test
     void whenSaveAndExistById_ShouldBeTrue(){
@@ -77,6 +83,72 @@ public class UserRepositoryIntegrationTest extends DataBaseIntegrationTestInitCl
         assertThat(listOfUsers.isEmpty()).isTrue();
     }
 
+    @Test
+    void whenFindByIdGreaterThan_ShouldReturnNextPageOrderedById(){
+        for(int i = 1; i<=5;i++){
+            User user = new User();
+            user.setName("Test" + i);
+            user.setEmail("test"+ i +"@test.com");
+            user.setAge(20+i);
+            userRepository.save(user);
+        }
+        List<User> firstPage = userRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(2));
+        List<User> secondPage = userRepository.findByIdGreaterThanOrderByIdAsc(
+                firstPage.get(1).getId(), PageRequest.ofSize(2));
+
+        assertThat(firstPage).hasSize(2);
+        assertThat(secondPage).hasSize(2);
+        assertThat(secondPage.get(0).getId()).isGreaterThan(firstPage.get(1).getId());
+        assertThat(secondPage.get(0).getId()).isLessThan(secondPage.get(1).getId());
+    }
+
+    @Test
+    void whenFindByEmail_ShouldBeFound(){
+        User user = new User();
+        user.setName("Test");
+        user.setEmail("test@test.com");
+        user.setAge(20);
+        userRepository.saveAndFlush(user);
+
+        assertThat(userRepository.findByEmail("test@test.com")).map(User::getId).contains(user.getId());
+        assertThat(userRepository.existsByEmail("other@test.com")).isFalse();
+        assertThat(userRepository.findExistingEmails(List.of("test@test.com", "other@test.com")))
+                .containsExactly("test@test.com");
+    }
+
+    @Test
+    void whenSearch_ShouldRankPrefixMatchesFirst(){
+        for (String name : new String[]{"Mary Ivanova", "Ivan Petrov", "Ivana Smith", "John Doe"}) {
+            User user = new User();
+            user.setName(name);
+            user.setEmail(name.toLowerCase().replace(" ", ".") + "@test.com");
+            user.setAge(20);
+            userRepository.saveAndFlush(user);
+        }
+
+        List<User> found = userRepository.search("ivan", 10, 0);
+
+        assertThat(found).extracting(User::getName)
+                .containsExactly("Ivan Petrov", "Ivana Smith", "Mary Ivanova");
+        assertThat(userRepository.search("ivan", 1, 1)).extracting(User::getName).containsExactly("Ivana Smith");
+    }
+
+    @Test
+    void whenFindPageColumns_ShouldSelectOnlyRequestedColumns(){
+        User user = new User();
+        user.setName("Test");
+        user.setEmail("test@test.com");
+        user.setAge(20);
+        userRepository.saveAndFlush(user);
+
+        List<Map<String, Object>> rows = userRepository.findPageColumns(
+                EnumSet.of(UserField.ID, UserField.EMAIL), 0L, 10);
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)).containsOnlyKeys("id", "email").containsEntry("email", "test@test.com");
+        assertThat(userRepository.findColumnsById(EnumSet.of(UserField.ID), user.getId())).isPresent();
+    }
+
     @Test
     void whenDeleteById_ShouldNotExistById(){
         User user = new User();
@@ -91,6 +163,21 @@ public class UserRepositoryIntegrationTest extends DataBaseIntegrationTestInitCl
         assertThat(notExist).isFalse();
     }
 
+    @Test
+    void whenDeleteByIdsReturning_ShouldReturnDeletedEmails(){
+        User user = new User();
+        user.setName("Test");
+        user.setEmail("test@test.com");
+        user.setAge(20);
+        userRepository.saveAndFlush(user);
+
+        List<DeletedUser> deletedUsers = userRepository.deleteByIdsReturning(List.of(user.getId(), -1L));
+
+        assertThat(deletedUsers).containsExactly(new DeletedUser(user.getId(), "test@test.com"));
+        entityManager.clear();
+        assertThat(userRepository.findById(user.getId())).isEmpty();
+    }
+
     @Test
     void whenDeleteById_NonExistedId_ShouldNotThrowException(){
         assertThatNoException()
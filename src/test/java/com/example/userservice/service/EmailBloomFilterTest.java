@@ -0,0 +1,102 @@
+package com.example.userservice.service;
+
+import com.example.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailBloomFilterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmailBloomFilter emailBloomFilter;
+
+    @BeforeEach
+    void setUp() {
+        emailBloomFilter = new EmailBloomFilter(userRepository, transactionManager, 1000, 0.01, 10);
+    }
+
+    @Test
+    void beforeRebuild_ShouldReportEveryEmailAsPossiblyPresent() {
+        assertTrue(emailBloomFilter.mightContain("new@example.com"));
+    }
+
+    @Test
+    void onApplicationReady_ShouldBuildInBackground() throws InterruptedException {
+        CountDownLatch streamed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.streamAllEmails()).thenAnswer(invocation -> {
+            streamed.countDown();
+            release.await();
+            return Stream.of("stored@example.com");
+        });
+
+        emailBloomFilter.onApplicationReady();
+        assertTrue(streamed.await(5, TimeUnit.SECONDS));
+        assertTrue(emailBloomFilter.mightContain("new@example.com"));
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emailBloomFilter.mightContain("new@example.com") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(emailBloomFilter.mightContain("new@example.com"));
+        assertTrue(emailBloomFilter.mightContain("stored@example.com"));
+    }
+
+    @Test
+    void shouldContainStoredAndAddedEmails() {
+        when(userRepository.streamAllEmails()).thenReturn(Stream.of("stored@example.com"));
+
+        emailBloomFilter.rebuild();
+        emailBloomFilter.add("added@example.com");
+
+        assertTrue(emailBloomFilter.mightContain("stored@example.com"));
+        assertTrue(emailBloomFilter.mightContain("added@example.com"));
+    }
+
+    @Test
+    void shouldRejectMostUnknownEmails() {
+        when(userRepository.streamAllEmails())
+                .thenReturn(IntStream.range(0, 1000).mapToObj(i -> "user" + i + "@example.com"));
+        emailBloomFilter.rebuild();
+
+        long falsePositives = IntStream.range(0, 10000)
+                .filter(i -> emailBloomFilter.mightContain("other" + i + "@example.com"))
+                .count();
+
+        assertTrue(falsePositives < 300, "False positives: " + falsePositives);
+    }
+
+    @Test
+    void shouldRebuildAfterEnoughDeletes() {
+        when(userRepository.streamAllEmails())
+                .thenReturn(Stream.of("stored@example.com"))
+                .thenReturn(Stream.empty());
+        emailBloomFilter.rebuild();
+
+        emailBloomFilter.recordDeletes(5);
+        emailBloomFilter.rebuildIfStale();
+        assertTrue(emailBloomFilter.mightContain("stored@example.com"));
+
+        emailBloomFilter.recordDeletes(5);
+        emailBloomFilter.rebuildIfStale();
+        assertFalse(emailBloomFilter.mightContain("stored@example.com"));
+    }
+}
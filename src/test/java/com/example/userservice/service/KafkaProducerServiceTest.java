@@ -0,0 +1,108 @@
+package com.example.userservice.service;
+
+import com.example.userservice.event.UserEvent;
+import com.example.userservice.event.UserEventCodec;
+import com.example.userservice.event.UserEventType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class KafkaProducerServiceTest {
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Captor
+    private ArgumentCaptor<ProducerRecord<String, byte[]>> record;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private KafkaProducerService kafkaProducer;
+
+    @AfterEach
+    void tearDown() {
+        if (kafkaProducer != null && kafkaProducer.isRunning()) {
+            kafkaProducer.stop();
+        }
+    }
+
+    @Test
+    void shouldCompleteOnlyAfterBrokerAck() throws Exception {
+        CompletableFuture<SendResult<String, byte[]>> ack = new CompletableFuture<>();
+        when(kafkaTemplate.getDefaultTopic()).thenReturn("users");
+        when(kafkaTemplate.send(ArgumentMatchers.<ProducerRecord<String, byte[]>>any())).thenReturn(ack);
+        kafkaProducer = new KafkaProducerService(kafkaTemplate, meterRegistry, "invalidation", "user-state", 10, Duration.ZERO, true);
+        kafkaProducer.start();
+
+        UserEvent event = new UserEvent(42L, UserEventType.CREATED, "test@test.com", Instant.ofEpochMilli(1000));
+        CompletableFuture<SendResult<String, byte[]>> result = kafkaProducer.sendUserEvent(event);
+        verify(kafkaTemplate, timeout(1000)).send(record.capture());
+        assertFalse(result.isDone());
+
+        assertEquals("42", record.getValue().key());
+        assertEquals(event, UserEventCodec.decode(record.getValue().value()));
+        assertEquals("user.created", new String(
+                record.getValue().headers().lastHeader(UserEventCodec.EVENT_TYPE_HEADER).value(), StandardCharsets.UTF_8));
+
+        ack.complete(new SendResult<>(record.getValue(),
+                new RecordMetadata(new TopicPartition("users", 0), 0, 0, 0, 0, 0)));
+        assertNotNull(result.get(1, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("kafka.producer.ack")
+                .tag("operation", KafkaProducerService.CREATE_OPERATION).tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void whenBufferIsFull_ShouldRejectWithoutBlocking() {
+        kafkaProducer = new KafkaProducerService(kafkaTemplate, meterRegistry, "invalidation", "user-state", 1, Duration.ZERO, false);
+
+        CompletableFuture<SendResult<String, byte[]>> first = kafkaProducer.sendUserCacheInvalidation("1");
+        CompletableFuture<SendResult<String, byte[]>> second = kafkaProducer.sendUserCacheInvalidation("2");
+
+        assertFalse(first.isDone());
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> second.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        assertEquals(1, meterRegistry.get("kafka.producer.rejected").counter().count());
+        assertEquals(1, meterRegistry.get("kafka.producer.errors")
+                .tag("operation", KafkaProducerService.INVALIDATE_OPERATION).tag("error", "buffer_full").counter().count());
+    }
+
+    @Test
+    void whenStopped_ShouldRejectWithoutBuffering() {
+        kafkaProducer = new KafkaProducerService(kafkaTemplate, meterRegistry, "invalidation", "user-state", 10, Duration.ZERO, false);
+        kafkaProducer.start();
+        kafkaProducer.stop();
+
+        CompletableFuture<SendResult<String, byte[]>> result = kafkaProducer.sendUserCacheInvalidation("1");
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> result.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        verify(kafkaTemplate, never()).send(ArgumentMatchers.<ProducerRecord<String, byte[]>>any());
+        assertEquals(1, meterRegistry.get("kafka.producer.errors")
+                .tag("operation", KafkaProducerService.INVALIDATE_OPERATION).tag("error", "stopped").counter().count());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.userservice.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserCacheInvalidationListenerTest {
+
+    @Mock
+    private UserCacheInvalidator userCacheInvalidator;
+
+    @InjectMocks
+    private UserCacheInvalidationListener listener;
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(UserCacheInvalidationListener.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void shouldEvictSingleUserLocally() {
+        listener.onInvalidation("42");
+
+        verify(userCacheInvalidator).evictLocal(42L);
+        verify(userCacheInvalidator, never()).evictAllLocal();
+    }
+
+    @Test
+    void shouldClearAllOnEvictAllMessage() {
+        listener.onInvalidation(UserCacheInvalidator.EVICT_ALL);
+
+        verify(userCacheInvalidator).evictAllLocal();
+        verify(userCacheInvalidator, never()).evictLocal(anyLong());
+    }
+
+    @Test
+    void whenMessageIsMalformed_ShouldLogAndKeepListening() {
+        assertDoesNotThrow(() -> listener.onInvalidation("not-a-number"));
+
+        verify(userCacheInvalidator, never()).evictLocal(anyLong());
+        assertTrue(appender.list.stream().anyMatch(event -> event.getLevel() == Level.ERROR
+                && event.getFormattedMessage().contains("not-a-number")));
+
+        listener.onInvalidation("7");
+        verify(userCacheInvalidator).evictLocal(7L);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.CacheConfig;
+import com.example.userservice.config.ReplicaDataSources;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserCacheInvalidatorTest {
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache usersCache;
+
+    @Mock
+    private KafkaProducerService kafkaProducer;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @Mock
+    private ReplicaDataSources replicaDataSources;
+
+    private UserCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        when(cacheManager.getCache(CacheConfig.USERS_CACHE)).thenReturn(usersCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void outsideTransaction_ShouldEvictImmediately() {
+        invalidator = invalidator(true);
+
+        invalidator.evict(1L);
+
+        verify(usersCache).evict(1L);
+        verify(kafkaProducer).sendUserCacheInvalidation("1");
+        verifyNoInteractions(taskScheduler);
+    }
+
+    @Test
+    void insideTransaction_ShouldEvictOnlyAfterCommit() {
+        invalidator = invalidator(true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        invalidator.evict(1L);
+
+        verifyNoInteractions(usersCache, kafkaProducer);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(usersCache).evict(1L);
+        verify(kafkaProducer).sendUserCacheInvalidation("1");
+    }
+
+    @Test
+    void whenManyIdsAreEvicted_ShouldClearAllWithOneMessage() {
+        invalidator = invalidator(true);
+
+        invalidator.evict(LongStream.rangeClosed(1, 101).boxed().toList());
+
+        verify(usersCache).clear();
+        verify(usersCache, never()).evict(any());
+        verify(kafkaProducer).sendUserCacheInvalidation(UserCacheInvalidator.EVICT_ALL);
+    }
+
+    @Test
+    void withReplicas_ShouldEvictAgainAfterReplicaWindow() {
+        invalidator = invalidator(false);
+
+        invalidator.evict(List.of(1L));
+
+        verify(usersCache).evict(1L);
+        verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    private UserCacheInvalidator invalidator(boolean withoutReplicas) {
+        when(replicaDataSources.isEmpty()).thenReturn(withoutReplicas);
+        return new UserCacheInvalidator(cacheManager, kafkaProducer, taskScheduler, replicaDataSources,
+                Duration.ofSeconds(1), Duration.ofSeconds(5));
+    }
+}
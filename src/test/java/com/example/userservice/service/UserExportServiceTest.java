@@ -0,0 +1,121 @@
+package com.example.userservice.service;
+
+import com.example.userservice.entity.User;
+import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserExportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private UserExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new UserExportService(userRepository, new UserMapper(), entityManager, objectMapper);
+    }
+
+    @Test
+    void shouldWriteOneJsonLinePerUserAndDetachEachRow() throws Exception {
+        List<User> users = users(3);
+        when(userRepository.streamAllOrderById()).thenReturn(users.stream());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(3, exportService.exportUsers(out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(i + 1, objectMapper.readTree(lines[i]).get("id").asLong());
+            assertEquals("user" + (i + 1) + "@test.com", objectMapper.readTree(lines[i]).get("email").asText());
+        }
+        for (User user : users) {
+            verify(entityManager).detach(user);
+        }
+    }
+
+    @Test
+    void shouldFlushFirstRowThenEveryFetchSize() {
+        int total = 2 * UserRepository.EXPORT_FETCH_SIZE + 1;
+        when(userRepository.streamAllOrderById()).thenReturn(users(total).stream());
+        FlushRecordingStream out = new FlushRecordingStream();
+
+        exportService.exportUsers(out);
+
+        assertEquals(List.of(1, UserRepository.EXPORT_FETCH_SIZE, 2 * UserRepository.EXPORT_FETCH_SIZE, total),
+                out.linesAtFlush);
+    }
+
+    @Test
+    void whenClientDisconnects_ShouldCloseTheCursor() {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(userRepository.streamAllOrderById()).thenReturn(users(2).stream().onClose(() -> closed.set(true)));
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(UncheckedIOException.class, () -> exportService.exportUsers(out));
+        assertTrue(closed.get());
+        verify(entityManager, never()).detach(any());
+    }
+
+    private List<User> users(int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> {
+                    User user = new User();
+                    user.setId(id);
+                    user.setName("User " + id);
+                    user.setEmail("user" + id + "@test.com");
+                    user.setAge(20);
+                    return user;
+                })
+                .toList();
+    }
+
+    private static class FlushRecordingStream extends OutputStream {
+        private final List<Integer> linesAtFlush = new ArrayList<>();
+        private int lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void flush() {
+            linesAtFlush.add(lines);
+        }
+    }
+}
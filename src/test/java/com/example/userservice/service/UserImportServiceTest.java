@@ -0,0 +1,136 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserImportProgressDTO;
+import com.example.userservice.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserImportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EmailBloomFilter emailBloomFilter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserImportService importService;
+
+    private final List<String> copied = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        importService = new UserImportService(userRepository, emailBloomFilter, new TransactionTemplate(transactionManager),
+                new ObjectMapper(), 2);
+    }
+
+    @Test
+    void shouldCopyValidRowsInBatchesAndReportRejectedOnes() {
+        when(userRepository.importUsers(any(), any(), eq(KafkaProducerService.CREATE_OPERATION)))
+                .thenAnswer(invocation -> {
+                    copied.add(read(invocation.getArgument(0)));
+                    return copied.size() == 1 ? Map.of(2L, 10L) : Map.of(6L, 11L);
+                });
+
+        String csv = "﻿Email,name,AGE,extra\r\n"
+                + "a@test.com,\"Doe, \"\"John\"\"\",30,x\r\n"
+                + "taken@test.com,Taken,,x\r\n"
+                + "b@test.com,Bad,old,x\r\n"
+                + "c@test.com,Short\r\n"
+                + "d@test.com,,,x\r\n";
+        List<String> lines = run(csv);
+
+        assertEquals(List.of(
+                "2,\"Doe, \"\"John\"\"\",\"a@test.com\",30\n3,\"Taken\",\"taken@test.com\",\n",
+                "6,,\"d@test.com\",\n"), copied);
+        assertEquals(List.of(
+                "{\"line\":3,\"error\":\"Email already exists\"}",
+                "{\"rows\":2,\"created\":1,\"rejected\":1,\"done\":false,\"error\":null}",
+                "{\"line\":4,\"error\":\"Age must be a number\"}",
+                "{\"line\":5,\"error\":\"Expected 4 columns, found 2\"}",
+                "{\"rows\":5,\"created\":2,\"rejected\":3,\"done\":false,\"error\":null}",
+                "{\"rows\":5,\"created\":2,\"rejected\":3,\"done\":true,\"error\":null}"), lines);
+        verify(emailBloomFilter).add("a@test.com");
+        verify(emailBloomFilter).add("d@test.com");
+        verify(emailBloomFilter, never()).add("taken@test.com");
+    }
+
+    @Test
+    void shouldStopAtMalformedCsvAfterCommittedBatches() {
+        when(userRepository.importUsers(any(), any(), any())).thenReturn(Map.of(2L, 1L, 3L, 2L));
+
+        List<String> lines = run("email\na@test.com\nb@test.com\n\"c@test.com\n");
+
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1).contains("\"done\":true"));
+        assertTrue(lines.get(1).contains("\"created\":2"));
+        assertTrue(lines.get(1).contains("Quoted field is not closed"));
+        verify(userRepository, times(1)).importUsers(any(), any(), any());
+    }
+
+    @Test
+    void shouldRejectFileWithoutEmailColumn() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        UserImportProgressDTO result = importService.importUsers(
+                new ByteArrayInputStream("name,age\nJohn,30\n".getBytes(StandardCharsets.UTF_8)), out);
+
+        assertTrue(result.isDone());
+        assertEquals("CSV header has no email column", result.getError());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void shouldReportDatabaseFailureAsLastProgress() {
+        when(userRepository.importUsers(any(), any(), any()))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        List<String> lines = run("email\na@test.com\n");
+
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("\"done\":true"));
+        assertTrue(lines.get(0).contains("Database error"));
+    }
+
+    private List<String> run(String csv) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importService.importUsers(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), out);
+        return List.of(out.toString(StandardCharsets.UTF_8).split("\n"));
+    }
+
+    private static String read(Reader reader) {
+        try {
+            StringWriter writer = new StringWriter();
+            reader.transferTo(writer);
+            return writer.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.userservice.service;
+
+import com.example.userservice.entity.User;
+import com.example.userservice.entity.UserOutboxEvent;
+import com.example.userservice.event.UserEvent;
+import com.example.userservice.event.UserEventType;
+import com.example.userservice.event.UserStateCodec;
+import com.example.userservice.repository.UserOutboxRepository;
+import com.example.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserOutboxRelayTest {
+
+    @Mock
+    private UserOutboxRepository outboxRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private KafkaProducerService kafkaProducer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new UserOutboxRelay(outboxRepository, userRepository, kafkaProducer, new TransactionTemplate(transactionManager),
+                new SimpleMeterRegistry(), 2, Duration.ofSeconds(1), Duration.ofDays(1));
+    }
+
+    @Test
+    void shouldSendEventsAndMarkThemSent() {
+        UserOutboxEvent create = event(1L, KafkaProducerService.CREATE_OPERATION, "create@test.com");
+        UserOutboxEvent delete = event(2L, KafkaProducerService.DELETE_OPERATION, "delete@test.com");
+        when(outboxRepository.lockNextUnsent(2)).thenReturn(List.of(create, delete)).thenReturn(List.of());
+        when(kafkaProducer.sendUserEvent(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(kafkaProducer.sendUserState(anyLong(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(userRepository.findAllById(List.of(1L))).thenReturn(List.of(user(1L)));
+
+        relay.relay();
+
+        ArgumentCaptor<UserEvent> sent = ArgumentCaptor.forClass(UserEvent.class);
+        verify(kafkaProducer, times(2)).sendUserEvent(sent.capture());
+        assertEquals(UserEventType.CREATED, sent.getAllValues().get(0).getType());
+        assertEquals(UserEventType.DELETED, sent.getAllValues().get(1).getType());
+        assertEquals("delete@test.com", sent.getAllValues().get(1).getEmail());
+        verify(outboxRepository).markSent(eq(List.of(1L, 2L)), any());
+        verify(outboxRepository, times(2)).lockNextUnsent(2);
+        verify(kafkaProducer).sendUserState(eq(1L), any());
+        verify(kafkaProducer).sendUserState(eq(2L), isNull());
+    }
+
+    @Test
+    void snapshotAndRepeatedEvents_ShouldPublishCurrentStateOncePerUser() {
+        UserOutboxEvent snapshot = event(1L, KafkaProducerService.SNAPSHOT_OPERATION, "old@test.com");
+        UserOutboxEvent update = event(2L, KafkaProducerService.UPDATE_OPERATION, "new@test.com");
+        update.setUser_id(1L);
+        when(outboxRepository.lockNextUnsent(2)).thenReturn(List.of(snapshot, update)).thenReturn(List.of());
+        when(kafkaProducer.sendUserEvent(any())).thenReturn(CompletableFuture.completedFuture(null));
+        ArgumentCaptor<byte[]> state = ArgumentCaptor.forClass(byte[].class);
+        when(kafkaProducer.sendUserState(eq(1L), state.capture())).thenReturn(CompletableFuture.completedFuture(null));
+        when(userRepository.findAllById(List.of(1L))).thenReturn(List.of(user(1L)));
+
+        relay.relay();
+
+        ArgumentCaptor<UserEvent> sent = ArgumentCaptor.forClass(UserEvent.class);
+        verify(kafkaProducer).sendUserEvent(sent.capture());
+        assertEquals(UserEventType.UPDATED, sent.getValue().getType());
+        assertEquals("current@test.com", UserStateCodec.decode(state.getValue()).getEmail());
+        verify(outboxRepository).markSent(eq(List.of(1L, 2L)), any());
+    }
+
+    @Test
+    void whenKafkaFails_ShouldNotMarkEventsSent() {
+        UserOutboxEvent create = event(1L, KafkaProducerService.CREATE_OPERATION, "create@test.com");
+        when(outboxRepository.lockNextUnsent(anyInt())).thenReturn(List.of(create));
+        when(kafkaProducer.sendUserEvent(any()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+        when(kafkaProducer.sendUserState(anyLong(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        verify(outboxRepository, never()).markSent(any(), any());
+        verify(transactionManager).rollback(any());
+    }
+
+    private User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("current@test.com");
+        user.setVersion(1L);
+        return user;
+    }
+
+    private UserOutboxEvent event(Long id, String operation, String email) {
+        UserOutboxEvent event = UserOutboxEvent.of(operation, id, email);
+        event.setId(id);
+        event.setCreated_at(LocalDateTime.now());
+        return event;
+    }
+}
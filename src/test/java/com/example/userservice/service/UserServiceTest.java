@@ -1,20 +1,51 @@
 package com.example.userservice.service;
 
+import com.example.userservice.config.ResilienceProfile;
+import com.example.userservice.config.UserResilienceProfiles;
 import com.example.userservice.dto.UserDTO;
+import com.example.userservice.dto.UserPageDTO;
 import com.example.userservice.entity.User;
+import com.example.userservice.exception.DuplicateEmailException;
+import com.example.userservice.exception.UserNotFoundException;
+import com.example.userservice.exception.UserServiceUnavailableException;
+import com.example.userservice.exception.UserVersionConflictException;
 import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.repository.UserField;
+import com.example.userservice.repository.UserOutboxRepository;
 import com.example.userservice.repository.UserRepository;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,26 +58,37 @@ public class UserServiceTest {
     private UserMapper userMapper;
 
     @Mock
-    private KafkaProducerService kafkaProducer;
+    private UserOutboxRepository userOutboxRepository;
 
-    @InjectMocks
-    private UserService userService;
+    @Mock
+    private UserCacheInvalidator userCacheInvalidator;
 
-    @Test
-    void shouldGetAllUsers() {
-        User user = new User();
-        UserDTO dto = new UserDTO();
-        dto.setId(1L);
+    @Mock
+    private EntityManager entityManager;
 
-        when(userRepository.findAll()).thenReturn(List.of(user));
-        when(userMapper.mapToUserDTO(user)).thenReturn(dto);
+    @Mock
+    private EmailBloomFilter emailBloomFilter;
 
-        List<UserDTO> result = userService.getAllUsers();
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
-        assertEquals(1, result.size());
-        assertEquals(1, result.get(0).getId());
-        verify(userRepository).findAll();
-        verify(userMapper).mapToUserDTO(user);
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService(userRepository, userMapper, userOutboxRepository,
+                new UserResilienceProfiles(profile("read-one", true), profile("list", true),
+                        profile("write", false), profile("delete", false)),
+                userCacheInvalidator, entityManager, new UserFallbackCache("maximumSize=100"), emailBloomFilter);
+    }
+
+    private ResilienceProfile profile(String name, boolean readOnly) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .ignoreExceptions(UserNotFoundException.class, UserVersionConflictException.class,
+                        DuplicateEmailException.class)
+                .build();
+        return new ResilienceProfile(CircuitBreaker.of(name, config), Bulkhead.ofDefaults(name),
+                TimeLimiter.ofDefaults(name), transactionManager, readOnly);
     }
 
     @Test
@@ -67,6 +109,81 @@ public class UserServiceTest {
         verify(userMapper).mapToUserDTO(user);
     }
 
+    @Test
+    void whenDatabaseFails_ShouldServeLastKnownUser() {
+        User user = new User();
+        user.setId(1L);
+        UserDTO dto = new UserDTO();
+        dto.setId(1L);
+
+        when(userRepository.findById(1L))
+                .thenReturn(Optional.of(user))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        when(userRepository.findById(2L)).thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        when(userMapper.mapToUserDTO(user)).thenReturn(dto);
+        userService.getUserById(1L);
+
+        assertSame(dto, userService.getUserById(1L));
+        assertThrows(UserServiceUnavailableException.class, () -> userService.getUserById(2L));
+    }
+
+    @Test
+    void shouldGetSparseUsersPageWithoutEntities() {
+        Set<UserField> fields = EnumSet.of(UserField.ID, UserField.EMAIL);
+        Map<String, Object> first = Map.of("id", 1L, "email", "a@test.com");
+        Map<String, Object> second = Map.of("id", 2L, "email", "b@test.com");
+        UserDTO firstDto = new UserDTO();
+        firstDto.setId(1L);
+
+        when(userRepository.findPageColumns(fields, 0L, 2)).thenReturn(List.of(first, second));
+        when(userMapper.mapToSparseUserDTO(first)).thenReturn(firstDto);
+        when(userMapper.mapToSparseUserDTO(second)).thenReturn(new UserDTO());
+
+        UserPageDTO page = userService.getUsersPage(null, 1, fields);
+
+        assertEquals(List.of(firstDto), page.getUsers());
+        assertEquals(1L, page.getNextCursor());
+        verify(userRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
+    }
+
+    @Test
+    void shouldGetUsersSliceSortedByWhitelistedPropertyThenId() {
+        User user = new User();
+        UserDTO dto = new UserDTO();
+        PageRequest expected = PageRequest.of(1, UserService.MAX_HTML_PAGE_SIZE,
+                Sort.by(Sort.Direction.DESC, "name").and(Sort.by(Sort.Direction.DESC, "id")));
+
+        when(userRepository.findAllBy(expected)).thenReturn(new SliceImpl<>(List.of(user), expected, true));
+        when(userMapper.mapToUserDTO(user)).thenReturn(dto);
+
+        Slice<UserDTO> slice = userService.getUsersSlice(1, 100_000, "name", Sort.Direction.DESC);
+
+        assertEquals(List.of(dto), slice.getContent());
+        assertTrue(slice.hasNext());
+        verify(userRepository).findAllBy(expected);
+    }
+
+    @Test
+    void shouldSortUsersSliceByEveryAllowedKey() {
+        when(userRepository.findAllBy(any())).thenReturn(new SliceImpl<>(List.of()));
+        ArgumentCaptor<Pageable> pageRequest = ArgumentCaptor.forClass(Pageable.class);
+
+        for (String key : UserService.SORT_PROPERTIES) {
+            userService.getUsersSlice(0, 20, key, Sort.Direction.DESC);
+
+            verify(userRepository, atLeastOnce()).findAllBy(pageRequest.capture());
+            Sort.Order first = pageRequest.getValue().getSort().iterator().next();
+            assertEquals(key, first.getProperty());
+            for (Sort.Order order : pageRequest.getValue().getSort()) {
+                if (order instanceof JpaSort.JpaOrder jpaOrder && jpaOrder.isUnsafe()) {
+                    assertDoesNotThrow(() -> User.class.getDeclaredField(order.getProperty()));
+                } else {
+                    assertDoesNotThrow(() -> PropertyPath.from(order.getProperty(), User.class), key);
+                }
+            }
+        }
+    }
+
     @Test
     void whenGetUserByIdUserNotFound_ShouldThrowException() {
         when(userRepository.findById(-1L)).thenReturn(Optional.empty());
@@ -86,49 +203,94 @@ public class UserServiceTest {
         inputDTO.setId(1L);
 
         when(userMapper.mapToUserEntity(any())).thenReturn(user);
-        when(userRepository.save(any())).thenReturn(user);
+        when(userRepository.saveAndFlush(any())).thenReturn(user);
         when(userMapper.mapToUserDTO(any())).thenReturn(inputDTO);
 
         UserDTO result = userService.createUser(inputDTO);
 
         assertNotNull(result);
         assertEquals(1, result.getId());
-        verify(userRepository).save(user);
+        verify(userRepository).saveAndFlush(user);
+    }
+
+    @Test
+    void whenBatchEmailIsTakenConcurrently_ShouldThrowConflict() {
+        UserDTO userDTO = new UserDTO();
+        userDTO.setEmail("raced@example.com");
+
+        when(userMapper.mapToUserEntity(any())).thenReturn(new User());
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new DataIntegrityViolationException("users_email_key")).when(userRepository).flush();
+
+        assertThrows(DuplicateEmailException.class, () -> userService.createUsers(List.of(userDTO)));
+        verify(emailBloomFilter, never()).add(any());
+    }
+
+    @Test
+    void whenCreateUserWithTakenEmail_ShouldThrowConflict() {
+        User user = new User();
+        user.setEmail("taken@example.com");
+
+        when(userMapper.mapToUserEntity(any())).thenReturn(user);
+        when(emailBloomFilter.mightContain("taken@example.com")).thenReturn(true);
+        when(userRepository.existsByEmail("taken@example.com")).thenReturn(true);
+
+        assertThrows(DuplicateEmailException.class, () -> userService.createUser(new UserDTO()));
+
+        verify(userRepository, never()).saveAndFlush(any());
     }
 
     @Test
     void shouldUpdateExistingUser() {
-        User existUser = new User();
-        existUser.setId(1L);
-        existUser.setName("OldName");
+        User updatedUser = new User();
+        updatedUser.setId(1L);
+        updatedUser.setName("UpdateName");
         UserDTO updateDTO = new UserDTO();
         updateDTO.setId(1L);
         updateDTO.setName("UpdateName");
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(existUser));
-        when(userRepository.save(any())).thenReturn(existUser);
+        when(userRepository.updateReturning(1L, null, "UpdateName", null, null)).thenReturn(Optional.of(updatedUser));
         when(userMapper.mapToUserDTO(any())).thenReturn(updateDTO);
 
         UserDTO result = userService.updateUser(1L, updateDTO);
 
         assertNotNull(result);
         assertEquals("UpdateName", result.getName());
+        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).save(any());
+        InOrder order = inOrder(entityManager, userRepository);
+        order.verify(entityManager).flush();
+        order.verify(userRepository).updateReturning(1L, null, "UpdateName", null, null);
+        verify(userOutboxRepository).save(argThat(event ->
+                KafkaProducerService.UPDATE_OPERATION.equals(event.getOperation()) && event.getUser_id() == 1L));
     }
 
     @Test
     void whenUpdateUserUserNotfound_ShouldThrowException() {
-        when(userRepository.findById(-1L)).thenReturn(Optional.empty());
+        when(userRepository.updateReturning(-1L, null, null, null, null)).thenReturn(Optional.empty());
+        when(userRepository.existsById(-1L)).thenReturn(false);
 
         RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> userService.updateUser(-1L, new UserDTO()));
 
         assertEquals("User not found by id: " + -1L, exception.getMessage());
-        verify(userRepository).findById(-1L);
-        verify(userMapper, never()).updateUserFromDTO(any(), any());
-        verify(userRepository, never()).save(any());
+        verify(userRepository).updateReturning(-1L, null, null, null, null);
         verify(userMapper, never()).mapToUserDTO(any());
     }
 
+    @Test
+    void whenUpdateUserWithStaleVersion_ShouldThrowConflict() {
+        when(userRepository.updateReturning(1L, 3L, "UpdateName", null, null)).thenReturn(Optional.empty());
+        when(userRepository.existsById(1L)).thenReturn(true);
+        UserDTO updateDTO = new UserDTO();
+        updateDTO.setName("UpdateName");
+
+        assertThrows(UserVersionConflictException.class,
+                () -> userService.updateUser(1L, updateDTO, 3L));
+
+        verify(userCacheInvalidator, never()).evict(anyLong());
+    }
+
     @Test
     void shouldDeleteExistingUser() {
         User existUser = new User();